@@ -0,0 +1,48 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.model.Assessment;
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data for the benchmarks, so runs at the same size are comparable.
+ */
+final class BenchmarkData {
+
+    static final LocalDate TODAY = LocalDate.now();
+    static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    static List<Patient> patients(final int count, final int childrenPerPatient) {
+        final Random random = new Random(SEED);
+        final List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Patient patient = Patient.builder()
+                    .id((long) i + 1)
+                    .name("Name" + i)
+                    .lastName("Lastname" + random.nextInt(count))
+                    .dob(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000)))
+                    .contactInfo("patient" + i + "@mail.com")
+                    .attendances(new ArrayList<>())
+                    .assessments(new ArrayList<>())
+                    .patientProgress(new ArrayList<>())
+                    .build();
+            for (int j = 0; j < childrenPerPatient; j++) {
+                patient.getAttendances().add(Attendance.builder().didAttend(random.nextBoolean())
+                        .dateOfAttendance(TODAY.plusDays(random.nextInt(120) - 60)).patient(patient).build());
+                patient.getAssessments().add(Assessment.builder().title("Assessment" + j).points(random.nextInt(100)).patient(patient).build());
+                patient.getPatientProgress().add(Progress.builder().notes("Progress notes " + j).patient(patient).build());
+            }
+            patients.add(patient);
+        }
+        return patients;
+    }
+}
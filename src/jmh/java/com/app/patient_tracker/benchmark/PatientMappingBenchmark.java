@@ -0,0 +1,44 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.dto.PatientResponseDto;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.service.PatientMappingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMappingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int patients;
+
+    private final PatientMappingService mappingService = new PatientMappingService();
+    private List<Patient> dataset;
+
+    @Setup
+    public void setUp() {
+        dataset = BenchmarkData.patients(patients, 3);
+    }
+
+    @Benchmark
+    public List<PatientResponseDto> mapPatientsToResponse() {
+        return mappingService.mapPatientsToResponse(dataset);
+    }
+}
@@ -0,0 +1,82 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.dto.PatientSuggestionDto;
+import com.app.patient_tracker.service.PatientNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups against the in-memory patient name index. Names are built from random syllables,
+ * queries replay every keystroke of typing a patient's last name followed by the first letters of the name.
+ * Sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientNameIndexBenchmark {
+
+    private static final String[] SYLLABLES = {"an", "ber", "ca", "dor", "el", "fa", "gin", "ha", "is", "jo", "ka", "lin",
+            "mar", "no", "os", "pe", "ra", "sim", "ta", "us", "vi", "wen", "ys", "zo", "ku", "te", "ma", "ri"};
+
+    @Param({"100000", "500000"})
+    private int patients;
+
+    private PatientNameIndex patientNameIndex;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(BenchmarkData.SEED);
+        patientNameIndex = new PatientNameIndex(null);
+        final String[] lastNames = new String[patients];
+        final String[] names = new String[patients];
+        for (int i = 0; i < patients; i++) {
+            names[i] = word(random, 2);
+            lastNames[i] = word(random, 3);
+            patientNameIndex.put((long) i + 1, names[i], lastNames[i], LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000)));
+        }
+
+        queries = new String[4096];
+        int q = 0;
+        while (q < queries.length) {
+            final int patient = random.nextInt(patients);
+            final String typed = lastNames[patient] + " " + names[patient].substring(0, 2);
+            for (int length = 1; length <= typed.length() && q < queries.length; length++) {
+                queries[q++] = typed.substring(0, length);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<PatientSuggestionDto> suggest() {
+        next = (next + 1) & (queries.length - 1);
+        return patientNameIndex.suggest(queries[next], null);
+    }
+
+    private static String word(final Random random, final int syllables) {
+        final StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables + random.nextInt(2); i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.PatientTrackingApplication;
+import com.app.patient_tracker.dto.PatientRequestDto;
+import com.app.patient_tracker.dto.PatientResponseDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.service.AttendanceService;
+import com.app.patient_tracker.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the database backed service paths against an in-memory H2 database seeded with the given number of patients,
+ * each with {@value #ATTENDANCES_PER_PATIENT} attendances spread around today.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientServiceBenchmark {
+
+    private static final int ATTENDANCES_PER_PATIENT = 3;
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    private int patients;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private AttendanceService attendanceService;
+    private Random random;
+    private long registrations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PatientTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark" + patients + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+        patientService = context.getBean(PatientService.class);
+        attendanceService = context.getBean(AttendanceService.class);
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LocalDate> checkSchedule() {
+        return attendanceService.checkSchedule();
+    }
+
+    @Benchmark
+    public void checkForNextAppointment() {
+        patientService.checkForNextAppointment((long) random.nextInt(patients) + 1);
+    }
+
+    @Benchmark
+    public PatientResponseDto addNewPatient() throws ApplicationException {
+        registrations++;
+        return patientService.addNewPatient(PatientRequestDto.builder()
+                .name("Registered" + registrations)
+                .lastName("Patient")
+                .dob(LocalDate.of(1990, 1, 1))
+                .contactInfo("registered" + registrations + "@mail.com")
+                .build());
+    }
+
+    private void seed(final JdbcTemplate jdbcTemplate) {
+        final Random seedRandom = new Random(BenchmarkData.SEED);
+        final List<Object[]> patientRows = new ArrayList<>(SEED_BATCH_SIZE);
+        final List<Object[]> attendanceRows = new ArrayList<>(SEED_BATCH_SIZE * ATTENDANCES_PER_PATIENT);
+        long attendanceId = 0;
+
+        for (long id = 1; id <= patients; id++) {
+            patientRows.add(new Object[]{id, "Name" + id, "Lastname" + seedRandom.nextInt(patients),
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(seedRandom.nextInt(20000))), "patient" + id + "@mail.com"});
+            for (int j = 0; j < ATTENDANCES_PER_PATIENT; j++) {
+                attendanceRows.add(new Object[]{++attendanceId, seedRandom.nextBoolean(),
+                        Date.valueOf(BenchmarkData.TODAY.plusDays(seedRandom.nextInt(120) - 60)), id});
+            }
+            if (patientRows.size() == SEED_BATCH_SIZE || id == patients) {
+                jdbcTemplate.batchUpdate("insert into patient (id, name, lastname, dob, contactinfo) values (?, ?, ?, ?, ?)", patientRows);
+                jdbcTemplate.batchUpdate("insert into attendance (id, didattend, dateofattendance, patient_id) values (?, ?, ?, ?)", attendanceRows);
+                patientRows.clear();
+                attendanceRows.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence patient_seq restart with " + (patients + 51));
+        jdbcTemplate.execute("alter sequence attendance_seq restart with " + (attendanceId + 51));
+    }
+}
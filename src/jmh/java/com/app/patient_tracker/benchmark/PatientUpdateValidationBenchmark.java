@@ -0,0 +1,73 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.dto.PatientUpdateRequest;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.validator.PatientUpdateRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a batch of update requests against their patients, one call per pair,
+ * with the precomputed update plan and with the former reflection based validator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientUpdateValidationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int requests;
+
+    private final PatientUpdateRequestValidator validator = new PatientUpdateRequestValidator();
+    private final ReflectivePatientUpdateRequestValidator reflectiveValidator = new ReflectivePatientUpdateRequestValidator();
+    private List<Patient> patients;
+    private List<PatientUpdateRequest> updateRequests;
+
+    @Setup
+    public void setUp() {
+        patients = BenchmarkData.patients(requests, 0);
+        updateRequests = new ArrayList<>(requests);
+        for (Patient patient : patients) {
+            updateRequests.add(PatientUpdateRequest.builder()
+                    .name(patient.getName() + "Updated")
+                    .lastName(patient.getLastName() + "Updated")
+                    .dob(patient.getDob().plusDays(1))
+                    .contactInfo("updated." + patient.getContactInfo())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void validateGivenDataForUpdate(final Blackhole blackhole) throws ApplicationException {
+        for (int i = 0; i < requests; i++) {
+            validator.validateGivenDataForUpdate(updateRequests.get(i), patients.get(i));
+            blackhole.consume(i);
+        }
+    }
+
+    @Benchmark
+    public void validateGivenDataForUpdateReflective(final Blackhole blackhole) throws ApplicationException, IllegalAccessException {
+        for (int i = 0; i < requests; i++) {
+            reflectiveValidator.validateGivenDataForUpdate(updateRequests.get(i), patients.get(i));
+            blackhole.consume(i);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.app.patient_tracker.benchmark;
+
+import com.app.patient_tracker.PatientTrackingApplication;
+import com.app.patient_tracker.dto.ProgressSearchResponseDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.service.ProgressSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches the progress notes index built from an in-memory H2 database seeded with the given number of notes,
+ * {@value #NOTES_PER_PATIENT} per patient, each a random sentence over a small clinical vocabulary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProgressSearchBenchmark {
+
+    private static final int NOTES_PER_PATIENT = 20;
+    private static final int SEED_BATCH_SIZE = 5000;
+    private static final String[] WORDS = ("patient knee flexion extension range motion improved reduced pain stiffness neck shoulder "
+            + "hip ankle walking balance exercises home program strength grip swelling independence dressing stairs "
+            + "posture lumbar cervical mobility gait fatigue session tolerated well better worse morning evening").split(" ");
+
+    @Param({"100000", "1000000"})
+    private int notes;
+
+    private ConfigurableApplicationContext context;
+    private ProgressSearchIndex progressSearchIndex;
+    private Path indexDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        indexDirectory = Files.createTempDirectory("progress-index");
+        context = new SpringApplicationBuilder(PatientTrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:search" + notes + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--progress-search.enabled=true",
+                        "--progress-search.directory=" + indexDirectory);
+        seed(context.getBean(JdbcTemplate.class));
+        progressSearchIndex = context.getBean(ProgressSearchIndex.class);
+        progressSearchIndex.indexAfter(0);
+        progressSearchIndex.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(indexDirectory);
+    }
+
+    @Benchmark
+    public ProgressSearchResponseDto searchTerm() throws ApplicationException {
+        return progressSearchIndex.search("swelling", 0, null);
+    }
+
+    @Benchmark
+    public ProgressSearchResponseDto searchAllTerms() throws ApplicationException {
+        return progressSearchIndex.search("shoulder pain morning", 0, null);
+    }
+
+    @Benchmark
+    public ProgressSearchResponseDto searchPhrase() throws ApplicationException {
+        return progressSearchIndex.search("\"knee flexion improved\"", 0, null);
+    }
+
+    private void seed(final JdbcTemplate jdbcTemplate) {
+        final Random random = new Random(BenchmarkData.SEED);
+        final int patients = notes / NOTES_PER_PATIENT;
+        final List<Object[]> rows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long id = 1; id <= patients; id++) {
+            rows.add(new Object[]{id, "Name" + id, "Lastname" + id, Date.valueOf(LocalDate.of(1970, 1, 1)), "patient" + id + "@mail.com"});
+            if (rows.size() == SEED_BATCH_SIZE || id == patients) {
+                jdbcTemplate.batchUpdate("insert into patient (id, name, lastname, dob, contactinfo) values (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        for (int i = 0; i < notes; i++) {
+            final StringBuilder note = new StringBuilder();
+            final int length = 8 + random.nextInt(20);
+            for (int w = 0; w < length; w++) {
+                note.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            rows.add(new Object[]{note.append('.').toString(), (long) (i % patients) + 1});
+            if (rows.size() == SEED_BATCH_SIZE || i == notes - 1) {
+                jdbcTemplate.batchUpdate("insert into progress (notes, patient_id) values (?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
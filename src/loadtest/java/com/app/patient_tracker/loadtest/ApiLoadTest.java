@@ -0,0 +1,290 @@
+package com.app.patient_tracker.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end load test: boots the application on a random port over an in-memory H2 database, seeds it
+ * and drives a weighted mix of reads and writes from concurrent clients against every REST controller.
+ * Per-route latency percentiles and throughput are printed and written to target/load-test,
+ * together with the full HdrHistogram percentile distribution of every route.
+ * <p>
+ * Runs only with the load-test profile: "mvn -Pload-test test". Tunable with system properties
+ * loadtest.patients, loadtest.children, loadtest.clients, loadtest.warmupSeconds, loadtest.durationSeconds
+ * and loadtest.writeRatio.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApiLoadTest {
+
+    private static final int PATIENTS = Integer.getInteger("loadtest.patients", 1000);
+    private static final int CHILDREN = Integer.getInteger("loadtest.children", 3);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.durationSeconds", 30);
+    private static final double WRITE_RATIO = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.2"));
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final Path REPORT_DIRECTORY = Paths.get("target", "load-test");
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LoadTestContext context;
+    private List<LoadTestRoute> readRoutes;
+    private List<LoadTestRoute> writeRoutes;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @BeforeAll
+    void setUp() {
+        seed();
+        context = new LoadTestContext("http://localhost:" + port, PATIENTS, CHILDREN);
+        final List<LoadTestRoute> routes = routes();
+        readRoutes = routes.stream().filter(route -> !route.isWrite()).collect(Collectors.toList());
+        writeRoutes = routes.stream().filter(LoadTestRoute::isWrite).collect(Collectors.toList());
+    }
+
+    @Test
+    void reportLatencyPerRoute() throws Exception {
+        runPhase(WARMUP_SECONDS);
+        readRoutes.forEach(LoadTestRoute::reset);
+        writeRoutes.forEach(LoadTestRoute::reset);
+
+        final long start = System.nanoTime();
+        runPhase(DURATION_SECONDS);
+        final double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        final List<LoadTestRoute> routes = new ArrayList<>(readRoutes);
+        routes.addAll(writeRoutes);
+        report(routes, elapsedSeconds);
+
+        for (LoadTestRoute route : routes) {
+            Assertions.assertEquals(0, route.getServerErrors().sum(), route.getName() + " answered with server errors");
+        }
+    }
+
+    private void runPhase(final int seconds) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    final LoadTestRoute route = pick(random.nextDouble() < WRITE_RATIO ? writeRoutes : readRoutes, random);
+                    send(route);
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS)) {
+            clients.shutdownNow();
+        }
+    }
+
+    private LoadTestRoute pick(final List<LoadTestRoute> routes, final ThreadLocalRandom random) {
+        int ticket = random.nextInt(routes.stream().mapToInt(LoadTestRoute::getWeight).sum());
+        for (LoadTestRoute route : routes) {
+            ticket -= route.getWeight();
+            if (ticket < 0) {
+                return route;
+            }
+        }
+        return routes.get(routes.size() - 1);
+    }
+
+    private void send(final LoadTestRoute route) {
+        final HttpRequest request = route.getRequestFactory().apply(context);
+        if (request == null) {
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            final HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            route.record(System.nanoTime() - start, response.statusCode());
+            if ("POST /api/patients/add".equals(route.getName()) && response.statusCode() == 201) {
+                response.headers().firstValue("Location")
+                        .map(location -> Long.valueOf(location.substring(location.lastIndexOf('/') + 1)))
+                        .ifPresent(context.getRegisteredPatientIds()::add);
+            }
+        } catch (IOException e) {
+            route.record(System.nanoTime() - start, 599);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<LoadTestRoute> routes() {
+        final List<LoadTestRoute> routes = new ArrayList<>();
+        routes.add(new LoadTestRoute("GET /api/patients/{id}", false, 6,
+                c -> c.request("/api/patients/" + c.randomPatientId()).GET().build()));
+        routes.add(new LoadTestRoute("GET /api/patients/all", false, 2,
+                c -> c.request("/api/patients/all?size=50&afterId=" + c.randomPatientId()).GET().build()));
+        routes.add(new LoadTestRoute("GET /api/patients/all?summary", false, 2,
+                c -> c.request("/api/patients/all?summary=true&size=50&afterId=" + c.randomPatientId()).GET().build()));
+        routes.add(new LoadTestRoute("GET /api/patients/recent", false, 1,
+                c -> c.request("/api/patients/recent").GET().build()));
+        routes.add(new LoadTestRoute("GET /api/patients/rollover/status", false, 1,
+                c -> c.request("/api/patients/rollover/status").GET().build()));
+        routes.add(new LoadTestRoute("GET /api/attendance/all", false, 1,
+                c -> c.request("/api/attendance/all?format=ndjson").GET().build()));
+        routes.add(new LoadTestRoute("GET /api/attendance/schedule", false, 1,
+                c -> c.request("/api/attendance/schedule").GET().build()));
+        routes.add(new LoadTestRoute("GET /api/attendance/schedule/daily", false, 2,
+                c -> c.request("/api/attendance/schedule/daily").GET().build()));
+        routes.add(new LoadTestRoute("GET /api/progress/{id}", false, 3,
+                c -> c.request("/api/progress/" + c.randomPatientId()).GET().build()));
+        routes.add(new LoadTestRoute("GET /api/progress/{id}/page", false, 3,
+                c -> c.request("/api/progress/" + c.randomPatientId() + "/page").GET().build()));
+
+        routes.add(new LoadTestRoute("POST /api/patients/add", true, 3,
+                c -> c.jsonRequest("/api/patients/add").POST(body("{\"name\":\"Load%d\",\"lastName\":\"Test\",\"dob\":\"1990-01-01\",\"contactInfo\":\"load%d@mail.com\"}",
+                        c.next(), c.next())).build()));
+        routes.add(new LoadTestRoute("PATCH /api/patients/{id}", true, 1,
+                c -> {
+                    final long n = c.next();
+                    return c.jsonRequest("/api/patients/" + c.randomPatientId()).method("PATCH", body(
+                            "{\"name\":\"Updated%d\",\"lastName\":\"Updated%d\",\"dob\":\"%s\",\"contactInfo\":\"updated%d@mail.com\"}",
+                            n, n, LocalDate.of(1950, 1, 1).plusDays(n % 20000), n)).build();
+                }));
+        routes.add(new LoadTestRoute("DELETE /api/patients/{id}", true, 1,
+                c -> {
+                    final Long id = c.getRegisteredPatientIds().poll();
+                    return id == null ? null : c.request("/api/patients/" + id).DELETE().build();
+                }));
+        routes.add(new LoadTestRoute("POST /api/patients/import", true, 1,
+                c -> c.request("/api/patients/import").header("Content-Type", "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofString(importCsv(c))).build()));
+        routes.add(new LoadTestRoute("POST /api/attendance/{id}", true, 3,
+                c -> c.jsonRequest("/api/attendance/" + c.randomPatientId())
+                        .POST(body("{\"dateOfAttendance\":\"%s\"}", c.randomFutureDate())).build()));
+        routes.add(new LoadTestRoute("POST /api/attendance/{id}/series", true, 1,
+                c -> c.jsonRequest("/api/attendance/" + c.randomPatientId() + "/series")
+                        .POST(body("{\"startDate\":\"%s\",\"intervalDays\":7,\"count\":4}", c.randomFutureDate())).build()));
+        routes.add(new LoadTestRoute("PATCH /api/attendance/{id}", true, 3,
+                c -> c.request("/api/attendance/" + c.randomChildId()).method("PATCH", HttpRequest.BodyPublishers.noBody()).build()));
+        routes.add(new LoadTestRoute("PATCH /api/attendance/bulk", true, 1,
+                c -> c.jsonRequest("/api/attendance/bulk").method("PATCH", body("{\"attendanceIds\":[%d,%d,%d,%d,%d]}",
+                        c.randomChildId(), c.randomChildId(), c.randomChildId(), c.randomChildId(), c.randomChildId())).build()));
+        routes.add(new LoadTestRoute("POST /api/assessment/{id}", true, 2,
+                c -> c.jsonRequest("/api/assessment/" + c.randomPatientId())
+                        .POST(body("{\"title\":\"Load assessment %d\",\"points\":%d}", c.next(), ThreadLocalRandom.current().nextInt(100))).build()));
+        routes.add(new LoadTestRoute("PATCH /api/assessment/{id}", true, 1,
+                c -> c.request("/api/assessment/" + c.randomChildId() + "?title=Updated" + c.next() + "&points=" + ThreadLocalRandom.current().nextInt(100))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()).build()));
+        routes.add(new LoadTestRoute("POST /api/progress/{id}", true, 3,
+                c -> c.jsonRequest("/api/progress/" + c.randomPatientId())
+                        .POST(body("{\"notes\":\"Load progress notes %d\"}", c.next())).build()));
+        return routes;
+    }
+
+    private static HttpRequest.BodyPublisher body(final String format, final Object... args) {
+        return HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT, format, args));
+    }
+
+    private static String importCsv(final LoadTestContext context) {
+        final StringBuilder csv = new StringBuilder("name,lastName,dob,contactInfo\n");
+        for (int i = 0; i < 10; i++) {
+            final long n = context.next();
+            csv.append("Imported").append(n).append(",Test,1990-01-01,imported").append(n).append("@mail.com\n");
+        }
+        return csv.toString();
+    }
+
+    private void report(final List<LoadTestRoute> routes, final double elapsedSeconds) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        final String header = String.format(Locale.ROOT, "%-36s %8s %9s %9s %9s %9s %9s %9s %6s %6s",
+                "route", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "5xx");
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "patients=%d children=%d clients=%d duration=%ds writeRatio=%.2f",
+                PATIENTS, CHILDREN, CLIENTS, DURATION_SECONDS, WRITE_RATIO));
+        lines.add(header);
+
+        final Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        for (LoadTestRoute route : routes) {
+            final Histogram histogram = route.collect();
+            total.add(histogram);
+            lines.add(line(route.getName(), histogram, elapsedSeconds, route.getClientErrors().sum(), route.getServerErrors().sum()));
+            try (PrintStream out = new PrintStream(REPORT_DIRECTORY.resolve(route.fileName() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        lines.add(line("TOTAL", total, elapsedSeconds,
+                routes.stream().mapToLong(route -> route.getClientErrors().sum()).sum(),
+                routes.stream().mapToLong(route -> route.getServerErrors().sum()).sum()));
+
+        lines.forEach(System.out::println);
+        Files.write(REPORT_DIRECTORY.resolve("report.txt"), lines);
+    }
+
+    private static String line(final String name, final Histogram histogram, final double elapsedSeconds, final long clientErrors, final long serverErrors) {
+        return String.format(Locale.ROOT, "%-36s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %6d %6d",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0, clientErrors, serverErrors);
+    }
+
+    private void seed() {
+        final Random random = new Random(42L);
+        final LocalDate today = LocalDate.now();
+        final List<Object[]> patientRows = new ArrayList<>(SEED_BATCH_SIZE);
+        final List<Object[]> attendanceRows = new ArrayList<>();
+        final List<Object[]> assessmentRows = new ArrayList<>();
+        final List<Object[]> progressRows = new ArrayList<>();
+        long attendanceId = 0;
+
+        for (long id = 1; id <= PATIENTS; id++) {
+            patientRows.add(new Object[]{id, "Name" + id, "Lastname" + random.nextInt(PATIENTS),
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000))), "patient" + id + "@mail.com"});
+            for (int j = 0; j < CHILDREN; j++) {
+                attendanceRows.add(new Object[]{++attendanceId, random.nextBoolean(), Date.valueOf(today.plusDays(random.nextInt(120) - 60)), id});
+                assessmentRows.add(new Object[]{"Assessment " + j, random.nextInt(100), id});
+                progressRows.add(new Object[]{"Progress notes " + j + " for patient " + id, id});
+            }
+            if (patientRows.size() == SEED_BATCH_SIZE || id == PATIENTS) {
+                jdbcTemplate.batchUpdate("insert into patient (id, name, lastname, dob, contactinfo) values (?, ?, ?, ?, ?)", patientRows);
+                jdbcTemplate.batchUpdate("insert into attendance (id, didattend, dateofattendance, patient_id) values (?, ?, ?, ?)", attendanceRows);
+                jdbcTemplate.batchUpdate("insert into assessment (title, points, patient_id) values (?, ?, ?)", assessmentRows);
+                jdbcTemplate.batchUpdate("insert into progress (notes, patient_id) values (?, ?)", progressRows);
+                patientRows.clear();
+                attendanceRows.clear();
+                assessmentRows.clear();
+                progressRows.clear();
+            }
+        }
+        jdbcTemplate.execute("alter sequence patient_seq restart with " + (PATIENTS + 51));
+        jdbcTemplate.execute("alter sequence attendance_seq restart with " + (attendanceId + 51));
+    }
+}
@@ -0,0 +1,61 @@
+package com.app.patient_tracker.loadtest;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared state the route request factories draw from: the server address, the seeded id ranges
+ * and the patients registered during the run, which are the only ones the load test deletes.
+ */
+@Getter
+class LoadTestContext {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final int patients;
+    private final int children;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<Long> registeredPatientIds = new ConcurrentLinkedQueue<>();
+
+    LoadTestContext(final String baseUrl, final int patients, final int children) {
+        this.baseUrl = baseUrl;
+        this.patients = patients;
+        this.children = children;
+    }
+
+    long randomPatientId() {
+        return ThreadLocalRandom.current().nextLong(patients) + 1;
+    }
+
+    /**
+     * Attendance, assessment and progress ids of the seeded dataset are dense, from 1 to patients * children.
+     */
+    long randomChildId() {
+        return ThreadLocalRandom.current().nextLong((long) patients * children) + 1;
+    }
+
+    LocalDate randomFutureDate() {
+        return LocalDate.now().plusDays(ThreadLocalRandom.current().nextInt(1, 90));
+    }
+
+    long next() {
+        return sequence.incrementAndGet();
+    }
+
+    HttpRequest.Builder request(final String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    HttpRequest.Builder jsonRequest(final String path) {
+        return request(path).header("Content-Type", "application/json");
+    }
+}
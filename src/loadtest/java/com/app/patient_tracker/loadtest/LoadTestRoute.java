@@ -0,0 +1,66 @@
+package com.app.patient_tracker.loadtest;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One REST route driven by the load test, with its share of the traffic and its latency recorder.
+ * Latencies are recorded in microseconds, from one microsecond up to one minute with three significant digits.
+ */
+@Getter
+class LoadTestRoute {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final boolean write;
+    private final int weight;
+    private final Function<LoadTestContext, HttpRequest> requestFactory;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    LoadTestRoute(final String name, final boolean write, final int weight, final Function<LoadTestContext, HttpRequest> requestFactory) {
+        this.name = name;
+        this.write = write;
+        this.weight = weight;
+        this.requestFactory = requestFactory;
+    }
+
+    void record(final long latencyNanos, final int status) {
+        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, used to throw away the warm-up phase.
+     */
+    void reset() {
+        recorder.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+    }
+
+    /**
+     * Moves what the recorder collected into the route histogram and returns it.
+     */
+    Histogram collect() {
+        histogram.add(recorder.getIntervalHistogram());
+        return histogram;
+    }
+
+    String fileName() {
+        return name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+}
@@ -4,12 +4,18 @@ import com.app.patient_tracker.dto.AssessmentRequestDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.service.AssessmentService;
+import com.app.patient_tracker.service.AssessmentStatistics;
+import com.app.patient_tracker.service.WritePipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("api/assessment")
 @Slf4j
@@ -17,18 +23,48 @@ import org.springframework.web.bind.annotation.*;
 public class AssessmentController {
 
     private final AssessmentService assessmentService;
+    private final WritePipeline writePipeline;
+    private final AssessmentStatistics assessmentStatistics;
 
     @PostMapping("/{id}")
-    public ResponseEntity<?> assessPatient(@PathVariable final Long id, @RequestBody final AssessmentRequestDto assessmentRequestDto) throws ApplicationException {
-        final var assessment = assessmentService.assessPatient(id, assessmentRequestDto);
-        return ResponseEntity.status(HttpStatus.OK).body(assessment);
+    public CompletableFuture<ResponseEntity<?>> assessPatient(@PathVariable final Long id, @RequestBody final AssessmentRequestDto assessmentRequestDto) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            final var assessment = assessmentService.assessPatient(id, assessmentRequestDto);
+            return ResponseEntity.status(HttpStatus.OK).body(assessment);
+        });
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<?> updateAssessment(@PathVariable final Long id,
-                                              @RequestParam(required = false) final String title,
-                                              @RequestParam(required = false) final Integer points) throws ApplicationException {
-        assessmentService.updateAssessment(id, title, points);
-        return ResponseEntity.status(HttpStatus.OK).body("Assessment updated.");
+    public CompletableFuture<ResponseEntity<?>> updateAssessment(@PathVariable final Long id,
+                                                                 @RequestParam(required = false) final String title,
+                                                                 @RequestParam(required = false) final Integer points) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            assessmentService.updateAssessment(id, title, points);
+            return ResponseEntity.status(HttpStatus.OK).body("Assessment updated.");
+        });
+    }
+
+    @GetMapping("/statistics")
+    public ResponseEntity<?> getTitleStatistics(@RequestParam(required = false) final String title) {
+        if (title != null) {
+            return ResponseEntity.status(HttpStatus.OK).body(assessmentStatistics.getTitleStatistics(title));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(assessmentStatistics.getAllTitleStatistics());
+    }
+
+    @GetMapping("/statistics/patient/{id}")
+    public ResponseEntity<?> getPatientStatistics(@PathVariable final Long id) {
+        final var statistics = assessmentStatistics.getPatientStatistics(id);
+        return ResponseEntity.status(HttpStatus.OK).body(statistics);
+    }
+
+    @GetMapping("/timeline/{patientId}")
+    public ResponseEntity<?> getTimeline(@PathVariable final Long patientId,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to,
+                                         @RequestParam(required = false) final String title,
+                                         @RequestParam(required = false) final Integer maxPoints) throws ApplicationException {
+        final var timeline = assessmentService.getTimeline(patientId, from, to, title, maxPoints);
+        return ResponseEntity.status(HttpStatus.OK).body(timeline);
     }
 }
@@ -1,17 +1,25 @@
 package com.app.patient_tracker.controller;
 
 import com.app.patient_tracker.dto.AttendanceRequestDto;
+import com.app.patient_tracker.dto.AttendanceSeriesRequestDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceRequestDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Attendance;
 import com.app.patient_tracker.service.AttendanceService;
+import com.app.patient_tracker.service.AttendanceSummaryService;
+import com.app.patient_tracker.service.WritePipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("api/attendance")
@@ -20,28 +28,76 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final WritePipeline writePipeline;
 
     @GetMapping("/all")
-    public ResponseEntity<?> getAllAttendances() throws ApplicationException {
-        final var attendances = attendanceService.getAllAttendances();
-        return ResponseEntity.status(HttpStatus.OK).body(attendances);
+    public ResponseEntity<StreamingResponseBody> getAllAttendances(@RequestParam(defaultValue = "json") final String format) {
+        final boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        final StreamingResponseBody attendances = outputStream -> attendanceService.writeAllAttendances(outputStream, ndjson);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(attendances);
     }
 
     @PatchMapping("/{attendanceId}")
-    public ResponseEntity<?> markAttendance(@PathVariable final Long attendanceId) throws ApplicationException {
-        attendanceService.markAttendance(attendanceId);
-        return ResponseEntity.status(HttpStatus.OK).body("Attendance marked.");
+    public CompletableFuture<ResponseEntity<?>> markAttendance(@PathVariable final Long attendanceId) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            attendanceService.markAttendance(attendanceId);
+            return ResponseEntity.status(HttpStatus.OK).body("Attendance marked.");
+        });
+    }
+
+    @PatchMapping("/bulk")
+    public CompletableFuture<ResponseEntity<?>> markAttendances(@RequestBody final BulkMarkAttendanceRequestDto bulkMarkRequestDto) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            final var report = attendanceService.markAttendances(bulkMarkRequestDto);
+            return ResponseEntity.status(HttpStatus.OK).body(report);
+        });
     }
 
     @GetMapping("/schedule")
-    public ResponseEntity<?> checkSchedule() throws ApplicationException {
+    public ResponseEntity<?> checkSchedule() {
         final var upcomingOccupationDates = attendanceService.checkSchedule();
         return ResponseEntity.status(HttpStatus.OK).body(upcomingOccupationDates);
     }
 
+    @GetMapping("/schedule/daily")
+    public ResponseEntity<?> checkDailySchedule(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to) throws ApplicationException {
+        final var appointmentsPerDay = attendanceService.checkDailySchedule(from, to);
+        return ResponseEntity.status(HttpStatus.OK).body(appointmentsPerDay);
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<?> getAttendanceSummaries(@RequestParam(required = false) final String sort,
+                                                    @RequestParam(required = false) final Integer minVisits,
+                                                    @RequestParam(required = false) final Integer minMissed,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate lastAttendedBefore,
+                                                    @RequestParam(required = false) final Integer limit) throws ApplicationException {
+        final var summaries = attendanceSummaryService.getSummaries(sort, minVisits, minMissed, lastAttendedBefore, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(summaries);
+    }
+
+    @GetMapping("/summary/{patientId}")
+    public ResponseEntity<?> getAttendanceSummary(@PathVariable final Long patientId) throws ApplicationException {
+        final var summary = attendanceSummaryService.getSummary(patientId);
+        return ResponseEntity.status(HttpStatus.OK).body(summary);
+    }
+
     @PostMapping("/{id}")
-    public ResponseEntity<?> scheduleAppointment(@PathVariable final Long PatientId, @RequestBody final AttendanceRequestDto attendanceRequestDto) throws ApplicationException {
-        final var attendance = attendanceService.scheduleAppointment(attendanceRequestDto, PatientId);
-        return ResponseEntity.status(HttpStatus.OK).body(attendance);
+    public CompletableFuture<ResponseEntity<?>> scheduleAppointment(@PathVariable("id") final Long patientId, @RequestBody final AttendanceRequestDto attendanceRequestDto) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            final var attendance = attendanceService.scheduleAppointment(attendanceRequestDto, patientId);
+            return ResponseEntity.status(HttpStatus.OK).body(attendance);
+        });
+    }
+
+    @PostMapping("/{id}/series")
+    public CompletableFuture<ResponseEntity<?>> scheduleAppointmentSeries(@PathVariable("id") final Long patientId, @RequestBody final AttendanceSeriesRequestDto seriesRequestDto) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            final var attendances = attendanceService.scheduleAppointmentSeries(seriesRequestDto, patientId);
+            return ResponseEntity.status(HttpStatus.OK).body(attendances);
+        });
     }
 }
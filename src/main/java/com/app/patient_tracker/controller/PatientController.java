@@ -1,19 +1,31 @@
 package com.app.patient_tracker.controller;
 
 
+import com.app.patient_tracker.dto.PatientPageRequest;
 import com.app.patient_tracker.dto.PatientRequestDto;
 import com.app.patient_tracker.dto.PatientResponseDto;
 import com.app.patient_tracker.dto.PatientUpdateRequest;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.service.NextAppointmentRolloverJob;
+import com.app.patient_tracker.service.PatientImportService;
+import com.app.patient_tracker.service.PatientNameIndex;
 import com.app.patient_tracker.service.PatientService;
 import com.app.patient_tracker.validator.PatientRequestValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -24,11 +36,33 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final NextAppointmentRolloverJob nextAppointmentRolloverJob;
+    private final PatientImportService patientImportService;
     private final PatientRequestValidator patientRequestValidator;
+    private final PatientNameIndex patientNameIndex;
 
     @GetMapping("/all")
-    public ResponseEntity<?> findAllPatients() throws ApplicationException {
-        final var patients = patientService.getAllPatients();
+    public ResponseEntity<?> findAllPatients(@RequestParam(required = false) final Long afterId,
+                                             @RequestParam(required = false) final Integer size,
+                                             @RequestParam(defaultValue = "ASC") final String direction,
+                                             @RequestParam(required = false) final String lastName,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate nextAppointmentFrom,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate nextAppointmentTo,
+                                             @RequestParam(defaultValue = "false") final boolean summary) throws ApplicationException {
+        final PatientPageRequest pageRequest = PatientPageRequest.builder()
+                .afterId(afterId)
+                .size(size)
+                .direction(Sort.Direction.fromOptionalString(direction)
+                        .orElseThrow(() -> new ApplicationException("Unknown sort direction " + direction + ".", ErrorCode.INVALID_DATA_EXCEPTION)))
+                .lastName(lastName)
+                .nextAppointmentFrom(nextAppointmentFrom)
+                .nextAppointmentTo(nextAppointmentTo)
+                .build();
+        if (summary) {
+            final var summaries = patientService.getPatientSummariesPage(pageRequest);
+            return ResponseEntity.status(HttpStatus.OK).body(summaries);
+        }
+        final var patients = patientService.getPatientsPage(pageRequest);
         return ResponseEntity.status(HttpStatus.OK).body(patients);
     }
 
@@ -38,14 +72,48 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.OK).body(patient);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> suggestPatients(@RequestParam final String query, @RequestParam(required = false) final Integer limit) {
+        final var suggestions = patientNameIndex.suggest(query, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(suggestions);
+    }
+
+    @GetMapping("/recent")
+    public ResponseEntity<?> findRecentPatients(@RequestParam(defaultValue = "10") final int limit) throws ApplicationException {
+        final var patients = patientService.getRecentPatients(limit);
+        return ResponseEntity.status(HttpStatus.OK).body(patients);
+    }
+
+    @GetMapping("/rollover/status")
+    public ResponseEntity<?> getNextAppointmentRolloverStatus() {
+        final var status = nextAppointmentRolloverJob.getStatus();
+        return ResponseEntity.status(HttpStatus.OK).body(status);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<?> addNewPatient(@RequestBody final PatientRequestDto patientRequestDto) throws ApplicationException {
-        final var patients = patientService.addNewPatient(patientRequestDto);
-        return ResponseEntity.status(HttpStatus.OK).body(patients);
+        final var patient = patientService.addNewPatient(patientRequestDto);
+        final URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/patients/{id}")
+                .buildAndExpand(patient.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(patient);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importPatientsFromNdjson(final InputStream inputStream) throws IOException {
+        final var report = patientImportService.importNdjson(inputStream);
+        return ResponseEntity.status(HttpStatus.OK).body(report);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importPatientsFromCsv(final InputStream inputStream) throws IOException, ApplicationException {
+        final var report = patientImportService.importCsv(inputStream);
+        return ResponseEntity.status(HttpStatus.OK).body(report);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<?> updatePatient(@PathVariable final Long id, @RequestBody final PatientUpdateRequest patientUpdateRequest) throws ApplicationException, IllegalAccessException {
+    public ResponseEntity<?> updatePatient(@PathVariable final Long id, @RequestBody final PatientUpdateRequest patientUpdateRequest) throws ApplicationException {
         patientService.updatePatientInfo(id, patientUpdateRequest);
         return ResponseEntity.status(HttpStatus.OK).body("Patient updated successfully.");
     }
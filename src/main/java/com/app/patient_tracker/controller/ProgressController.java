@@ -2,13 +2,17 @@ package com.app.patient_tracker.controller;
 
 import com.app.patient_tracker.dto.ProgressRequestDto;
 import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.service.ProgressSearchIndex;
 import com.app.patient_tracker.service.ProgressService;
+import com.app.patient_tracker.service.WritePipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("api/progress")
 @Slf4j
@@ -16,11 +20,23 @@ import org.springframework.web.bind.annotation.*;
 public class ProgressController {
 
     private final ProgressService progressService;
+    private final WritePipeline writePipeline;
+    private final ProgressSearchIndex progressSearchIndex;
 
     @PostMapping("/{id}")
-    public ResponseEntity<?> fillPatientProgress(@PathVariable final Long id, @RequestBody final ProgressRequestDto progressRequestDto) throws ApplicationException {
-        progressService.fillProgress(id, progressRequestDto);
-        return ResponseEntity.status(HttpStatus.OK).body("Progress filled.");
+    public CompletableFuture<ResponseEntity<?>> fillPatientProgress(@PathVariable final Long id, @RequestBody final ProgressRequestDto progressRequestDto) throws ApplicationException {
+        return writePipeline.submit(() -> {
+            progressService.fillProgress(id, progressRequestDto);
+            return ResponseEntity.status(HttpStatus.OK).body("Progress filled.");
+        });
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProgress(@RequestParam final String query,
+                                            @RequestParam(defaultValue = "0") final int page,
+                                            @RequestParam(required = false) final Integer size) throws ApplicationException {
+        final var hits = progressSearchIndex.search(query, page, size);
+        return ResponseEntity.status(HttpStatus.OK).body(hits);
     }
 
     @GetMapping("/{id}")
@@ -28,4 +44,20 @@ public class ProgressController {
         final var progresses = progressService.getProgressesByPatientId(id);
         return ResponseEntity.status(HttpStatus.OK).body(progresses);
     }
+
+    @GetMapping("/{id}/page")
+    public ResponseEntity<?> getPatientProgressPage(@PathVariable final Long id,
+                                                    @RequestParam(required = false) final Long beforeId,
+                                                    @RequestParam(required = false) final Integer size,
+                                                    @RequestParam(defaultValue = "true") final boolean preview,
+                                                    @RequestParam(required = false) final Integer previewLength) throws ApplicationException {
+        final var progresses = progressService.getProgressPage(id, beforeId, size, preview, previewLength);
+        return ResponseEntity.status(HttpStatus.OK).body(progresses);
+    }
+
+    @GetMapping("/{id}/notes/{progressId}")
+    public ResponseEntity<?> getPatientProgressNote(@PathVariable final Long id, @PathVariable final Long progressId) throws ApplicationException {
+        final var progress = progressService.getProgressNote(id, progressId);
+        return ResponseEntity.status(HttpStatus.OK).body(progress);
+    }
 }
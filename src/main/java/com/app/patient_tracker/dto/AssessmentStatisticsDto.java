@@ -0,0 +1,27 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AssessmentStatisticsDto {
+
+    private String title;
+
+    private Long patientId;
+
+    private long count;
+
+    private Double mean;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Integer p50;
+
+    private Integer p90;
+
+    private Integer p99;
+}
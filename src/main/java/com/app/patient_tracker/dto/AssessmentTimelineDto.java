@@ -0,0 +1,26 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class AssessmentTimelineDto {
+
+    private Long patientId;
+
+    private String title;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private long assessments;
+
+    private boolean downsampled;
+
+    private List<AssessmentTimelinePointDto> points;
+}
@@ -0,0 +1,25 @@
+package com.app.patient_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssessmentTimelinePointDto {
+
+    private LocalDateTime time;
+
+    private double mean;
+
+    private int min;
+
+    private int max;
+
+    private long count;
+}
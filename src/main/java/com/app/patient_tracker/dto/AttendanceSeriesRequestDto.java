@@ -0,0 +1,16 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class AttendanceSeriesRequestDto {
+
+    private LocalDate startDate;
+    private Integer intervalDays;
+    private Integer count;
+    private LocalDate until;
+}
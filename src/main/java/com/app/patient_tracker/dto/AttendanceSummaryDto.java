@@ -0,0 +1,27 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class AttendanceSummaryDto {
+
+    private Long patientId;
+
+    private String name;
+
+    private String lastName;
+
+    private int scheduled;
+
+    private int attended;
+
+    private int missed;
+
+    private LocalDate lastAttended;
+
+    private double noShowRate;
+}
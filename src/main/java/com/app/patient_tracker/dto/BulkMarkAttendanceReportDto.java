@@ -0,0 +1,17 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkMarkAttendanceReportDto {
+
+    private int marked;
+
+    private List<Long> missingAttendanceIds;
+
+    private List<Long> missingPatientIds;
+}
@@ -0,0 +1,16 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class BulkMarkAttendanceRequestDto {
+
+    private List<Long> attendanceIds;
+    private LocalDate date;
+    private List<Long> patientIds;
+}
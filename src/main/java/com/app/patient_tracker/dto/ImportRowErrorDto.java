@@ -0,0 +1,15 @@
+package com.app.patient_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ImportRowErrorDto {
+
+    private long line;
+
+    private String message;
+}
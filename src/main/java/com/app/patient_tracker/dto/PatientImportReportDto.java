@@ -0,0 +1,17 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PatientImportReportDto {
+
+    private long imported;
+
+    private long failed;
+
+    private List<ImportRowErrorDto> errors;
+}
@@ -0,0 +1,24 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class PatientPageRequest {
+
+    private Long afterId;
+
+    private Integer size;
+
+    private Sort.Direction direction;
+
+    private String lastName;
+
+    private LocalDate nextAppointmentFrom;
+
+    private LocalDate nextAppointmentTo;
+}
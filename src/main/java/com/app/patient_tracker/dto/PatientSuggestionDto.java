@@ -0,0 +1,19 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class PatientSuggestionDto {
+
+    private Long id;
+
+    private String name;
+
+    private String lastName;
+
+    private LocalDate dob;
+}
@@ -0,0 +1,35 @@
+package com.app.patient_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Patient columns needed by list views, with child counts computed by the database.
+ * Constructed directly by the query, no Patient entity is hydrated.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class PatientSummaryDto {
+
+    private Long id;
+
+    private String name;
+
+    private String lastName;
+
+    private LocalDate dob;
+
+    private String contactInfo;
+
+    private LocalDate nextAppointment;
+
+    private Long attendanceCount;
+
+    private Long assessmentCount;
+
+    private Long progressCount;
+}
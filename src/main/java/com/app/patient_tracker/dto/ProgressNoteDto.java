@@ -0,0 +1,33 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Progress note as returned by the paged history. In preview mode notes holds only the first characters of the note,
+ * notesLength is the length of the full note and truncated tells whether the full note has to be fetched by id.
+ * Constructed directly by the query, no Progress or Patient entity is hydrated.
+ */
+@Data
+@Builder
+public class ProgressNoteDto {
+
+    private Long id;
+
+    private String notes;
+
+    private Integer notesLength;
+
+    private boolean truncated;
+
+    public ProgressNoteDto(Long id, String notes, Integer notesLength) {
+        this(id, notes, notesLength, notes != null && notesLength != null && notesLength > notes.length());
+    }
+
+    public ProgressNoteDto(Long id, String notes, Integer notesLength, boolean truncated) {
+        this.id = id;
+        this.notes = notes;
+        this.notesLength = notesLength;
+        this.truncated = truncated;
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProgressPageResponseDto {
+
+    private List<ProgressNoteDto> progresses;
+
+    private Long nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ProgressSearchHitDto {
+
+    private Long progressId;
+
+    private Long patientId;
+
+    private float score;
+
+    private String snippet;
+}
@@ -0,0 +1,17 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProgressSearchResponseDto {
+
+    private List<ProgressSearchHitDto> hits;
+
+    private long totalHits;
+
+    private Integer nextPage;
+}
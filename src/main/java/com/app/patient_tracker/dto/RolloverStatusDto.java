@@ -0,0 +1,23 @@
+package com.app.patient_tracker.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class RolloverStatusDto {
+
+    private boolean running;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private Long durationMillis;
+
+    private long processedPatients;
+
+    private long processedChunks;
+}
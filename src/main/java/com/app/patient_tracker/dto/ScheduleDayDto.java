@@ -0,0 +1,17 @@
+package com.app.patient_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class ScheduleDayDto {
+
+    private LocalDate date;
+
+    private Long appointments;
+}
@@ -11,13 +11,17 @@ public enum ErrorCode {
     ASSESSMENT_UPDATE_EXCEPTION(HttpStatus.INTERNAL_SERVER_ERROR),
     ATTENDANCE_MAPPING_EXCEPTION(HttpStatus.INTERNAL_SERVER_ERROR),
     ATTENDANCE_NOT_FOUND(HttpStatus.NOT_FOUND),
+    PROGRESS_NOT_FOUND_EXCEPTION(HttpStatus.NOT_FOUND),
     DELETE_OPERATION_EXCEPTION(HttpStatus.INTERNAL_SERVER_ERROR),
     INVALID_DATA_EXCEPTION(HttpStatus.BAD_REQUEST),
     PATIENT_REQUEST_DTO_EXCEPTION(HttpStatus.BAD_REQUEST),
     MANDATORY_FIELD_MISSING_EXCEPTION(HttpStatus.BAD_REQUEST),
     PATIENT_UPDATE_EXCEPTION(HttpStatus.INTERNAL_SERVER_ERROR),
     ASSESSMENT_REQUEST_EXCEPTION(HttpStatus.BAD_REQUEST),
-    ATTENDANCE_REQUEST_EXCEPTION(HttpStatus.BAD_REQUEST);
+    ATTENDANCE_REQUEST_EXCEPTION(HttpStatus.BAD_REQUEST),
+    SERVICE_OVERLOADED_EXCEPTION(HttpStatus.SERVICE_UNAVAILABLE),
+    PROGRESS_JOURNAL_EXCEPTION(HttpStatus.SERVICE_UNAVAILABLE),
+    PROGRESS_SEARCH_EXCEPTION(HttpStatus.SERVICE_UNAVAILABLE);
 
     private final HttpStatus httpStatus;
 
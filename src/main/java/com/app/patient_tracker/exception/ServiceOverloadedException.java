@@ -0,0 +1,13 @@
+package com.app.patient_tracker.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceOverloadedException extends ApplicationException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, ErrorCode.SERVICE_OVERLOADED_EXCEPTION);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -19,7 +19,8 @@ import java.time.LocalDate;
 public class Attendance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attendance_seq")
+    @SequenceGenerator(name = "attendance_seq", sequenceName = "attendance_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "didattend")
@@ -29,7 +30,7 @@ public class Attendance {
             name = "dateofattendance")
     private LocalDate dateOfAttendance;
 
-    @ManyToOne(cascade = CascadeType.PERSIST)
+    @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
     @JsonBackReference
     private Patient patient;
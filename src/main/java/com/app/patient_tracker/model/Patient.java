@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -19,10 +20,27 @@ import java.util.List;
 @Entity
 @Builder
 @Table(name = "patient")
+@NamedEntityGraph(name = Patient.SUMMARY_GRAPH)
+@NamedEntityGraph(name = Patient.WITH_SCHEDULE_GRAPH,
+        attributeNodes = @NamedAttributeNode("attendances"))
 public class Patient {
 
+    /**
+     * Fetch plan with patient columns only, no child collections.
+     */
+    public static final String SUMMARY_GRAPH = "Patient.summary";
+
+    /**
+     * Fetch plan with attendances joined. Only one bag is ever joined, assessments and progress
+     * are loaded in batches of {@value #COLLECTION_BATCH_SIZE} owners to avoid a cartesian product.
+     */
+    public static final String WITH_SCHEDULE_GRAPH = "Patient.withSchedule";
+
+    public static final int COLLECTION_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,14 +58,17 @@ public class Patient {
     private String contactInfo;
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.PERSIST)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @JsonManagedReference
     private List<Attendance> attendances = new ArrayList<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.PERSIST)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @JsonManagedReference
     private List<Assessment> assessments = new ArrayList<>();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.PERSIST)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     @JsonManagedReference
     private List<Progress> patientProgress = new ArrayList<>();
 
@@ -2,6 +2,31 @@ package com.app.patient_tracker.repository;
 
 import com.app.patient_tracker.model.Assessment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
+
+    String STREAM_FETCH_SIZE = "1000";
+
+    /**
+     * Streams creation time and points of one patient's assessments within [from, to), oldest first,
+     * optionally restricted to a single title. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select a.createdAt, a.points from Assessment a " +
+            "where a.patient.id = :patientId and a.createdAt >= :from and a.createdAt < :to " +
+            "and (:title is null or a.title = :title) " +
+            "order by a.createdAt")
+    Stream<Object[]> streamTimeline(@Param("patientId") Long patientId, @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to, @Param("title") String title);
 }
@@ -1,7 +1,55 @@
 package com.app.patient_tracker.repository;
 
+import com.app.patient_tracker.dto.ScheduleDayDto;
 import com.app.patient_tracker.model.Attendance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
+
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Streams all attendances ordered by id. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select a from Attendance a order by a.id")
+    Stream<Attendance> streamAll();
+
+    @Query("select a.dateOfAttendance from Attendance a " +
+            "where a.didAttend = false and a.dateOfAttendance > :after " +
+            "order by a.dateOfAttendance")
+    List<LocalDate> findUpcomingAppointmentDates(@Param("after") LocalDate after);
+
+    @Query("select new com.app.patient_tracker.dto.ScheduleDayDto(a.dateOfAttendance, count(a)) from Attendance a " +
+            "where a.didAttend = false and a.dateOfAttendance between :from and :to " +
+            "group by a.dateOfAttendance " +
+            "order by a.dateOfAttendance")
+    List<ScheduleDayDto> countAppointmentsPerDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select a.id from Attendance a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.id from Attendance a where a.dateOfAttendance = :date and a.patient.id in :patientIds")
+    List<Long> findIdsByDateAndPatientIds(@Param("date") LocalDate date, @Param("patientIds") Collection<Long> patientIds);
+
+    @Query("select distinct a.patient.id from Attendance a where a.id in :ids")
+    List<Long> findPatientIdsByAttendanceIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Attendance a set a.didAttend = true where a.id in :ids and a.didAttend = false")
+    int markAttended(@Param("ids") Collection<Long> ids);
 }
@@ -1,10 +1,50 @@
 package com.app.patient_tracker.repository;
 
 import com.app.patient_tracker.model.Patient;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
-    //TODO: Think of custom SQL methods
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientRepositoryCustom {
+
+    List<Patient> findByOrderByIdDesc(Pageable pageable);
+
+    @EntityGraph(Patient.SUMMARY_GRAPH)
+    Optional<Patient> findSummaryById(Long id);
+
+    @EntityGraph(Patient.WITH_SCHEDULE_GRAPH)
+    Optional<Patient> findWithScheduleById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Patient p where p.id = :id")
+    Optional<Patient> findAndLockById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Patient p set p.nextAppointment = " +
+            "(select min(a.dateOfAttendance) from Attendance a " +
+            "where a.patient.id = p.id and a.didAttend = false and a.dateOfAttendance > :today) " +
+            "where p.id = :id")
+    int recomputeNextAppointment(@Param("id") Long id, @Param("today") LocalDate today);
+
+    @Query("select p.id from Patient p where p.nextAppointment < :today and p.id > :afterId order by p.id")
+    List<Long> findStaleNextAppointmentIds(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Patient p set p.nextAppointment = " +
+            "(select min(a.dateOfAttendance) from Attendance a " +
+            "where a.patient.id = p.id and a.didAttend = false and a.dateOfAttendance > :today) " +
+            "where p.id in :ids")
+    int recomputeNextAppointments(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today);
 }
@@ -0,0 +1,30 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.dto.PatientPageRequest;
+import com.app.patient_tracker.dto.PatientSummaryDto;
+import com.app.patient_tracker.model.Patient;
+
+import java.util.List;
+
+public interface PatientRepositoryCustom {
+
+    /**
+     * Finds one page of patients ordered by id, starting right after the given cursor id.
+     * Optional filters are applied only when present in the request.
+     *
+     * @param pageRequest cursor, direction and filters of the page.
+     * @param limit       maximum number of patients to return.
+     * @return patients of the page, ordered by id in requested direction.
+     */
+    List<Patient> findPatientsPage(PatientPageRequest pageRequest, int limit);
+
+    /**
+     * Same page as {@link #findPatientsPage(PatientPageRequest, int)}, projected to summaries in a single statement.
+     * Child counts are computed by correlated subqueries, no entity or collection is loaded.
+     *
+     * @param pageRequest cursor, direction and filters of the page.
+     * @param limit       maximum number of patients to return.
+     * @return patient summaries of the page, ordered by id in requested direction.
+     */
+    List<PatientSummaryDto> findPatientSummariesPage(PatientPageRequest pageRequest, int limit);
+}
@@ -0,0 +1,97 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.dto.PatientPageRequest;
+import com.app.patient_tracker.dto.PatientSummaryDto;
+import com.app.patient_tracker.model.Assessment;
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatientRepositoryImpl implements PatientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Patient> findPatientsPage(final PatientPageRequest pageRequest, final int limit) {
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Patient> query = builder.createQuery(Patient.class);
+        final Root<Patient> patient = query.from(Patient.class);
+
+        query.select(patient);
+        applyPage(builder, query, patient, pageRequest);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PatientSummaryDto> findPatientSummariesPage(final PatientPageRequest pageRequest, final int limit) {
+        final CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<PatientSummaryDto> query = builder.createQuery(PatientSummaryDto.class);
+        final Root<Patient> patient = query.from(Patient.class);
+
+        query.select(builder.construct(PatientSummaryDto.class,
+                patient.get("id"),
+                patient.get("name"),
+                patient.get("lastName"),
+                patient.get("dob"),
+                patient.get("contactInfo"),
+                patient.get("nextAppointment"),
+                countChildren(builder, query, patient, Attendance.class),
+                countChildren(builder, query, patient, Assessment.class),
+                countChildren(builder, query, patient, Progress.class)));
+        applyPage(builder, query, patient, pageRequest);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private <T> Subquery<Long> countChildren(final CriteriaBuilder builder, final AbstractQuery<?> query,
+                                             final Root<Patient> patient, final Class<T> childType) {
+        final Subquery<Long> subquery = query.subquery(Long.class);
+        final Root<T> child = subquery.from(childType);
+        return subquery.select(builder.count(child))
+                .where(builder.equal(child.get("patient"), patient));
+    }
+
+    private void applyPage(final CriteriaBuilder builder, final CriteriaQuery<?> query,
+                           final Root<Patient> patient, final PatientPageRequest pageRequest) {
+        final boolean descending = pageRequest.getDirection() == Sort.Direction.DESC;
+
+        final List<Predicate> predicates = new ArrayList<>();
+        if (pageRequest.getAfterId() != null) {
+            predicates.add(descending
+                    ? builder.lessThan(patient.get("id"), pageRequest.getAfterId())
+                    : builder.greaterThan(patient.get("id"), pageRequest.getAfterId()));
+        }
+        if (pageRequest.getLastName() != null && !pageRequest.getLastName().isBlank()) {
+            predicates.add(builder.like(builder.lower(patient.get("lastName")),
+                    pageRequest.getLastName().trim().toLowerCase() + "%"));
+        }
+        if (pageRequest.getNextAppointmentFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(patient.<LocalDate>get("nextAppointment"), pageRequest.getNextAppointmentFrom()));
+        }
+        if (pageRequest.getNextAppointmentTo() != null) {
+            predicates.add(builder.lessThanOrEqualTo(patient.<LocalDate>get("nextAppointment"), pageRequest.getNextAppointmentTo()));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(descending ? builder.desc(patient.get("id")) : builder.asc(patient.get("id")));
+    }
+}
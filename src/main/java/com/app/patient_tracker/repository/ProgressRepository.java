@@ -1,7 +1,35 @@
 package com.app.patient_tracker.repository;
 
+import com.app.patient_tracker.dto.ProgressNoteDto;
 import com.app.patient_tracker.model.Progress;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ProgressRepository extends JpaRepository<Progress, Long> {
+
+    @Query("select new com.app.patient_tracker.dto.ProgressNoteDto(p.id, p.notes, length(p.notes)) from Progress p " +
+            "where p.patient.id = :patientId order by p.id desc")
+    List<ProgressNoteDto> findLatestNotesPage(@Param("patientId") Long patientId, Pageable pageable);
+
+    @Query("select new com.app.patient_tracker.dto.ProgressNoteDto(p.id, substring(p.notes, 1, :previewLength), length(p.notes)) from Progress p " +
+            "where p.patient.id = :patientId order by p.id desc")
+    List<ProgressNoteDto> findLatestNotePreviewsPage(@Param("patientId") Long patientId, @Param("previewLength") int previewLength, Pageable pageable);
+
+    @Query("select new com.app.patient_tracker.dto.ProgressNoteDto(p.id, p.notes, length(p.notes)) from Progress p " +
+            "where p.patient.id = :patientId and p.id < :beforeId order by p.id desc")
+    List<ProgressNoteDto> findNotesPage(@Param("patientId") Long patientId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("select new com.app.patient_tracker.dto.ProgressNoteDto(p.id, substring(p.notes, 1, :previewLength), length(p.notes)) from Progress p " +
+            "where p.patient.id = :patientId and p.id < :beforeId order by p.id desc")
+    List<ProgressNoteDto> findNotePreviewsPage(@Param("patientId") Long patientId, @Param("beforeId") Long beforeId,
+                                               @Param("previewLength") int previewLength, Pageable pageable);
+
+    @Query("select new com.app.patient_tracker.dto.ProgressNoteDto(p.id, p.notes, length(p.notes)) from Progress p " +
+            "where p.id = :id and p.patient.id = :patientId")
+    Optional<ProgressNoteDto> findNote(@Param("patientId") Long patientId, @Param("id") Long id);
 }
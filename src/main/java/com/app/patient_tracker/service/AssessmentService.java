@@ -1,15 +1,22 @@
 package com.app.patient_tracker.service;
 
 import com.app.patient_tracker.dto.AssessmentRequestDto;
+import com.app.patient_tracker.dto.AssessmentTimelineDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Patient;
 import com.app.patient_tracker.repository.AssessmentRepository;
+import com.app.patient_tracker.util.TimelineDownsampler;
 import com.app.patient_tracker.validator.AssessmentRequestValidator;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing assessment related operations.
@@ -20,15 +27,21 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AssessmentService {
 
+    static final int DEFAULT_TIMELINE_POINTS = 200;
+    static final int MAX_TIMELINE_POINTS = 1000;
+    static final int DEFAULT_TIMELINE_YEARS = 1;
+
     private final AssessmentRepository assessmentRepository;
     private final PatientService patientService;
     private final AssessmentRequestValidator assessmentRequestValidator;
     private final AssessmentMappingService assessmentMappingService;
+    private final AssessmentStatistics assessmentStatistics;
 
     /**
      * Method assesses a patient based on the provided assessment request data.
-     * This method retrieved patient by its unique id, validates assessment request data to ensure that mandatory fields are present,
+     * This method retrieves a reference to the patient by its unique id, validates assessment request data to ensure that mandatory fields are present,
      * maps the assessment request data to an entity and saves assessment to DB.
+     * The assessment statistics are updated once the transaction commits.
      *
      * @param patientId            Is the id of the patient to be assessed.
      * @param assessmentRequestDto The assessment request containing information about the new assessment.
@@ -36,15 +49,17 @@ public class AssessmentService {
      * @throws ApplicationException If the patient with specified id is not found
      *                              or mandatory fields are missing in the assessment request.
      */
+    @Transactional
     public Assessment assessPatient(final Long patientId, final AssessmentRequestDto assessmentRequestDto) throws ApplicationException {
-        final Patient patient = patientService.getPatientById(patientId);
+        final Patient patient = patientService.getPatientReference(patientId);
 
         assessmentRequestValidator.validateAssessmentRequest(assessmentRequestDto);
         final Assessment newAssessment = assessmentMappingService.mapAttendanceToEntity(assessmentRequestDto);
         newAssessment.setPatient(patient);
-        patient.getAssessments().add(newAssessment);
 
         assessmentRepository.save(newAssessment);
+        patientService.evictPatient(patientId);
+        assessmentStatistics.recordAfterCommit(newAssessment.getTitle(), newAssessment.getPoints(), patientId);
         log.info("New assessment added.");
         return newAssessment;
     }
@@ -60,19 +75,74 @@ public class AssessmentService {
      * @throws ApplicationException if Assessment with specified id can not be found
      *                              or Assessment can not be updated.
      */
+    @Transactional
     public void updateAssessment(final Long id, final String title, final Integer points) throws ApplicationException {
         log.info("Looking for assessment with id = " + id);
         final Assessment assessmentToUpdate = assessmentRepository.findById(id)
                 .orElseThrow(() -> new ApplicationException("Assessment can not be found.", ErrorCode.ASSESSMENT_NOT_FOUND_EXCEPTION));
 
         if (title != null && points != null) {
+            final String oldTitle = assessmentToUpdate.getTitle();
+            final Integer oldPoints = assessmentToUpdate.getPoints();
             assessmentToUpdate.setTitle(title);
             assessmentToUpdate.setPoints(points);
 
             log.info("Assessment been updated.");
             assessmentRepository.save(assessmentToUpdate);
+            final Long patientId = assessmentToUpdate.getPatient() != null ? assessmentToUpdate.getPatient().getId() : null;
+            if (patientId != null) {
+                patientService.evictPatient(patientId);
+            }
+            assessmentStatistics.replaceAfterCommit(oldTitle, oldPoints, title, points, patientId);
             return;
         }
         throw new ApplicationException("Assessment can not be updated.", ErrorCode.ASSESSMENT_UPDATE_EXCEPTION);
     }
+
+    /**
+     * Method returns the assessment scores of a patient within a date range, downsampled to at most the requested number of points.
+     * Scores are streamed through the patient and creation time index in a single pass, so neither memory use
+     * nor response size depend on the length of the history.
+     * The range defaults to the year up to today, maxPoints defaults to {@value #DEFAULT_TIMELINE_POINTS}
+     * and is capped at {@value #MAX_TIMELINE_POINTS}.
+     *
+     * @param patientId Is the id of the patient.
+     * @param from      First day of the range, inclusive.
+     * @param to        Last day of the range, inclusive.
+     * @param title     Assessment title to chart, all titles when null.
+     * @param maxPoints Maximum number of points of the timeline.
+     * @return The timeline of the patient scores, oldest first.
+     * @throws ApplicationException If the patient is not found or the range or number of points is incorrect.
+     */
+    @Transactional(readOnly = true)
+    public AssessmentTimelineDto getTimeline(final Long patientId, final LocalDate from, final LocalDate to,
+                                             final String title, final Integer maxPoints) throws ApplicationException {
+        final LocalDate rangeEnd = to != null ? to : LocalDate.now();
+        final LocalDate rangeStart = from != null ? from : rangeEnd.minusYears(DEFAULT_TIMELINE_YEARS);
+        if (rangeEnd.isBefore(rangeStart)) {
+            throw new ApplicationException("Timeline range is incorrect.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        if (maxPoints != null && maxPoints < 1) {
+            throw new ApplicationException("Timeline maxPoints must be positive.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        patientService.verifyPatientExists(patientId);
+
+        final TimelineDownsampler downsampler = new TimelineDownsampler(
+                maxPoints == null ? DEFAULT_TIMELINE_POINTS : Math.min(maxPoints, MAX_TIMELINE_POINTS),
+                rangeStart.atStartOfDay(), rangeEnd.plusDays(1).atStartOfDay());
+        try (Stream<Object[]> scores = assessmentRepository.streamTimeline(patientId, rangeStart.atStartOfDay(),
+                rangeEnd.plusDays(1).atStartOfDay(), title)) {
+            scores.forEach(score -> downsampler.add((LocalDateTime) score[0], (Integer) score[1]));
+        }
+
+        return AssessmentTimelineDto.builder()
+                .patientId(patientId)
+                .title(title)
+                .from(rangeStart)
+                .to(rangeEnd)
+                .assessments(downsampler.getSamples())
+                .downsampled(downsampler.isDownsampled())
+                .points(downsampler.getPoints())
+                .build();
+    }
 }
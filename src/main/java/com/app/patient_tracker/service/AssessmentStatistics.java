@@ -0,0 +1,568 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.AssessmentStatisticsDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory assessment statistics per assessment title and per patient: count, mean, min, max and approximate percentiles.
+ * Every title and every patient occupies a slot in primitive arrays holding count, sum, min, max and a sparse histogram.
+ * Histogram buckets are exact below {@value #EXACT_LIMIT} points, above it every power of two is split
+ * into {@value #SUB_BUCKETS} buckets, so percentiles of larger points are off by less than two percent.
+ * Built from the assessment table at startup and kept in sync by the assessment and patient write paths,
+ * reads never touch the database.
+ */
+@Service
+@Slf4j
+public class AssessmentStatistics implements MeterBinder {
+
+    static final int EXACT_LIMIT = 1024;
+    static final int SUB_BUCKETS = 64;
+
+    private static final int EXACT_BITS = Integer.numberOfTrailingZeros(EXACT_LIMIT);
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int REBUILD_BATCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> titleSlots = new HashMap<>();
+    private final LongSlotTable patientSlots = new LongSlotTable();
+    private final Aggregates titles = new Aggregates();
+    private final Aggregates patients = new Aggregates();
+
+    public AssessmentStatistics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Method builds the statistics by streaming the assessment table in batches ordered by id.
+     */
+    @PostConstruct
+    public void rebuild() {
+        long afterId = 0;
+        int recorded = 0;
+        lock.writeLock().lock();
+        try {
+            titleSlots.clear();
+            patientSlots.clear();
+            titles.clear();
+            patients.clear();
+            while (true) {
+                final List<Object[]> rows = jdbcTemplate.query(
+                        "SELECT id, title, points, patient_id FROM assessment WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getObject(4) == null ? null : rs.getLong(4)},
+                        afterId, REBUILD_BATCH_SIZE);
+                rows.forEach(row -> add((String) row[1], (Integer) row[2], (Long) row[3]));
+                recorded += rows.size();
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Assessment statistics built from " + recorded + " assessments.");
+    }
+
+    /**
+     * Method records a new assessment once the current transaction commits, or right away outside a transaction.
+     *
+     * @param title     Assessment title.
+     * @param points    Assessment points.
+     * @param patientId Is the id of the assessed patient, null for assessments without a patient.
+     */
+    public void recordAfterCommit(final String title, final int points, final Long patientId) {
+        afterCommit(() -> record(title, points, patientId));
+    }
+
+    /**
+     * Method replaces the title and points of an existing assessment once the current transaction commits,
+     * or right away outside a transaction.
+     *
+     * @param oldTitle  Assessment title before the update.
+     * @param oldPoints Assessment points before the update.
+     * @param newTitle  Assessment title after the update.
+     * @param newPoints Assessment points after the update.
+     * @param patientId Is the id of the assessed patient, null for assessments without a patient.
+     */
+    public void replaceAfterCommit(final String oldTitle, final int oldPoints, final String newTitle, final int newPoints, final Long patientId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                subtract(oldTitle, oldPoints, patientId);
+                add(newTitle, newPoints, patientId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Method loads the assessments of a patient, so they can be removed from the statistics once the patient is deleted
+     * and the assessments are gone with it.
+     *
+     * @param patientId Is the id of the patient about to be deleted.
+     * @return The titles and points of the patient assessments.
+     */
+    public PatientAssessments loadPatientAssessments(final Long patientId) {
+        final List<String> assessmentTitles = new ArrayList<>();
+        final List<Integer> assessmentPoints = new ArrayList<>();
+        jdbcTemplate.query("SELECT title, points FROM assessment WHERE patient_id = ?", rs -> {
+            assessmentTitles.add(rs.getString(1));
+            assessmentPoints.add(rs.getInt(2));
+        }, patientId);
+        return new PatientAssessments(patientId, assessmentTitles.toArray(new String[0]),
+                assessmentPoints.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Method removes the assessments of a deleted patient once the current transaction commits, or right away outside a transaction.
+     *
+     * @param assessments The patient assessments loaded before the patient was deleted.
+     */
+    public void removeAfterCommit(final PatientAssessments assessments) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < assessments.getPoints().length; i++) {
+                    subtract(assessments.getTitles()[i], assessments.getPoints()[i], assessments.getPatientId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void record(final String title, final int points, final Long patientId) {
+        lock.writeLock().lock();
+        try {
+            add(title, points, patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final String title, final int points, final Long patientId) {
+        lock.writeLock().lock();
+        try {
+            subtract(title, points, patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method returns the statistics of a single assessment title, with zero count when the title was never assessed.
+     *
+     * @param title Assessment title.
+     * @return The statistics of the title.
+     */
+    public AssessmentStatisticsDto getTitleStatistics(final String title) {
+        lock.readLock().lock();
+        try {
+            final Integer slot = titleSlots.get(title);
+            return titles.describe(slot == null ? -1 : slot).title(title).build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method returns the statistics of every assessment title, ordered by title.
+     *
+     * @return The statistics of all titles.
+     */
+    public List<AssessmentStatisticsDto> getAllTitleStatistics() {
+        lock.readLock().lock();
+        try {
+            final List<AssessmentStatisticsDto> statistics = new ArrayList<>(titleSlots.size());
+            new TreeMap<>(titleSlots).forEach((title, slot) -> statistics.add(titles.describe(slot).title(title).build()));
+            return statistics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method returns the statistics of the assessments of a single patient, with zero count when the patient has none.
+     *
+     * @param patientId Is the id of the patient.
+     * @return The statistics of the patient.
+     */
+    public AssessmentStatisticsDto getPatientStatistics(final Long patientId) {
+        lock.readLock().lock();
+        try {
+            return patients.describe(patientSlots.get(patientId)).patientId(patientId).build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int titleCount() {
+        lock.readLock().lock();
+        try {
+            return titleSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int patientCount() {
+        lock.readLock().lock();
+        try {
+            return patientSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("assessment.statistics.titles", this, AssessmentStatistics::titleCount)
+                .description("Assessment titles with statistics")
+                .register(registry);
+        Gauge.builder("assessment.statistics.patients", this, AssessmentStatistics::patientCount)
+                .description("Patients with assessment statistics")
+                .register(registry);
+    }
+
+    static int bucket(final int points) {
+        if (points < EXACT_LIMIT) {
+            return Math.max(points, 0);
+        }
+        final int exponent = 31 - Integer.numberOfLeadingZeros(points);
+        final int subBucket = (points >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - EXACT_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static int lowerBound(final int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        final int exponent = (bucket - EXACT_LIMIT) / SUB_BUCKETS + EXACT_BITS;
+        final int subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static int upperBound(final int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        final int exponent = (bucket - EXACT_LIMIT) / SUB_BUCKETS + EXACT_BITS;
+        return lowerBound(bucket) + (1 << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private void add(final String title, final int points, final Long patientId) {
+        titles.add(titleSlots.computeIfAbsent(title, key -> titles.allocate()), points);
+        if (patientId != null) {
+            int slot = patientSlots.get(patientId);
+            if (slot < 0) {
+                slot = patients.allocate();
+                patientSlots.put(patientId, slot);
+            }
+            patients.add(slot, points);
+        }
+    }
+
+    private void subtract(final String title, final int points, final Long patientId) {
+        final Integer titleSlot = titleSlots.get(title);
+        if (titleSlot != null && titles.remove(titleSlot, points)) {
+            titleSlots.remove(title);
+            titles.release(titleSlot);
+        }
+        if (patientId != null) {
+            final int patientSlot = patientSlots.get(patientId);
+            if (patientSlot >= 0 && patients.remove(patientSlot, points)) {
+                patientSlots.remove(patientId);
+                patients.release(patientSlot);
+            }
+        }
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Value
+    public static class PatientAssessments {
+        Long patientId;
+        String[] titles;
+        int[] points;
+    }
+
+    /**
+     * Count, sum, min, max and histogram of every slot. A histogram is an array of entries sorted by bucket,
+     * every entry packs the bucket into the high and the count into the low 32 bits of a long.
+     */
+    private static final class Aggregates {
+        private long[] counts = new long[64];
+        private long[] sums = new long[64];
+        private int[] mins = new int[64];
+        private int[] maxs = new int[64];
+        private long[][] histograms = new long[64][];
+        private int[] histogramSizes = new int[64];
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private int slots;
+
+        private int allocate() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slots == counts.length) {
+                final int capacity = slots * 2;
+                counts = Arrays.copyOf(counts, capacity);
+                sums = Arrays.copyOf(sums, capacity);
+                mins = Arrays.copyOf(mins, capacity);
+                maxs = Arrays.copyOf(maxs, capacity);
+                histograms = Arrays.copyOf(histograms, capacity);
+                histogramSizes = Arrays.copyOf(histogramSizes, capacity);
+            }
+            return slots++;
+        }
+
+        private void release(final int slot) {
+            counts[slot] = 0;
+            sums[slot] = 0;
+            histograms[slot] = null;
+            histogramSizes[slot] = 0;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        private void clear() {
+            Arrays.fill(histograms, 0, slots, null);
+            Arrays.fill(counts, 0, slots, 0);
+            Arrays.fill(sums, 0, slots, 0);
+            Arrays.fill(histogramSizes, 0, slots, 0);
+            slots = 0;
+            freeCount = 0;
+        }
+
+        private void add(final int slot, final int points) {
+            if (counts[slot] == 0) {
+                mins[slot] = points;
+                maxs[slot] = points;
+                histograms[slot] = new long[4];
+            } else {
+                mins[slot] = Math.min(mins[slot], points);
+                maxs[slot] = Math.max(maxs[slot], points);
+            }
+            counts[slot]++;
+            sums[slot] += points;
+
+            final int bucket = bucket(points);
+            final int size = histogramSizes[slot];
+            long[] histogram = histograms[slot];
+            final int index = find(histogram, size, bucket);
+            if (index >= 0) {
+                histogram[index]++;
+                return;
+            }
+            final int insertAt = -index - 1;
+            if (size == histogram.length) {
+                histogram = Arrays.copyOf(histogram, size + (size >> 1) + 1);
+                histograms[slot] = histogram;
+            }
+            System.arraycopy(histogram, insertAt, histogram, insertAt + 1, size - insertAt);
+            histogram[insertAt] = ((long) bucket << 32) | 1;
+            histogramSizes[slot] = size + 1;
+        }
+
+        /**
+         * Method removes points from a slot, returns true when the slot holds no assessments anymore.
+         * Min and max are exact while they are not removed, afterwards they fall back to the bounds of the histogram buckets.
+         */
+        private boolean remove(final int slot, final int points) {
+            final long[] histogram = histograms[slot];
+            final int size = histogramSizes[slot];
+            final int index = find(histogram, size, bucket(points));
+            if (index < 0) {
+                return false;
+            }
+            if ((int) histogram[index] > 1) {
+                histogram[index]--;
+            } else {
+                System.arraycopy(histogram, index + 1, histogram, index, size - index - 1);
+                histogramSizes[slot] = size - 1;
+            }
+            counts[slot]--;
+            sums[slot] -= points;
+            if (counts[slot] == 0) {
+                return true;
+            }
+            if (points <= mins[slot]) {
+                mins[slot] = Math.max(mins[slot], lowerBound((int) (histogram[0] >>> 32)));
+            }
+            if (points >= maxs[slot]) {
+                maxs[slot] = Math.min(maxs[slot], upperBound((int) (histogram[histogramSizes[slot] - 1] >>> 32)));
+            }
+            return false;
+        }
+
+        private AssessmentStatisticsDto.AssessmentStatisticsDtoBuilder describe(final int slot) {
+            if (slot < 0 || counts[slot] == 0) {
+                return AssessmentStatisticsDto.builder().count(0);
+            }
+            return AssessmentStatisticsDto.builder()
+                    .count(counts[slot])
+                    .mean((double) sums[slot] / counts[slot])
+                    .min(mins[slot])
+                    .max(maxs[slot])
+                    .p50(percentile(slot, 0.5))
+                    .p90(percentile(slot, 0.9))
+                    .p99(percentile(slot, 0.99));
+        }
+
+        /**
+         * Method returns the nearest rank percentile, the exact value for points in the exact range,
+         * otherwise the middle of the bucket the rank falls into.
+         */
+        private int percentile(final int slot, final double quantile) {
+            final long rank = Math.max(1, (long) Math.ceil(quantile * counts[slot]));
+            final long[] histogram = histograms[slot];
+            long seen = 0;
+            for (int i = 0; i < histogramSizes[slot]; i++) {
+                seen += (int) histogram[i];
+                if (seen >= rank) {
+                    final int bucket = (int) (histogram[i] >>> 32);
+                    final int middle = (int) (((long) lowerBound(bucket) + upperBound(bucket)) / 2);
+                    return Math.min(Math.max(middle, mins[slot]), maxs[slot]);
+                }
+            }
+            return maxs[slot];
+        }
+
+        private static int find(final long[] histogram, final int size, final int bucket) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int middleBucket = (int) (histogram[middle] >>> 32);
+                if (middleBucket < bucket) {
+                    low = middle + 1;
+                } else if (middleBucket > bucket) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * Open addressing table from positive patient ids to slots, with linear probing and backward shift deletion.
+     */
+    private static final class LongSlotTable {
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size;
+
+        private int get(final long key) {
+            final int mask = keys.length - 1;
+            for (int i = index(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        private void put(final long key, final int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            final int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void remove(final long key) {
+            final int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            int next = (i + 1) & mask;
+            while (keys[next] != 0) {
+                final int home = index(keys[next], mask);
+                if (((next - home) & mask) >= ((next - i) & mask)) {
+                    keys[i] = keys[next];
+                    values[i] = values[next];
+                    i = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[i] = 0;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void clear() {
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+
+        private void resize() {
+            final long[] oldKeys = keys;
+            final int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(final long key, final int mask) {
+            final long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
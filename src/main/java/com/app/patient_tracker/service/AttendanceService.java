@@ -1,20 +1,39 @@
 package com.app.patient_tracker.service;
 
 import com.app.patient_tracker.dto.AttendanceRequestDto;
+import com.app.patient_tracker.dto.AttendanceSeriesRequestDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceReportDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceRequestDto;
+import com.app.patient_tracker.dto.ScheduleDayDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Attendance;
 import com.app.patient_tracker.model.Patient;
 import com.app.patient_tracker.repository.AttendanceRepository;
 import com.app.patient_tracker.repository.PatientRepository;
 import com.app.patient_tracker.validator.AttendanceRequestValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for managing attendance related operations.
@@ -30,6 +49,13 @@ public class AttendanceService {
     private final AttendanceRequestValidator attendanceRequestValidator;
     private final AttendanceMappingService attendanceMappingService;
     private final PatientService patientService;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+    static final int DEFAULT_SCHEDULE_WINDOW_DAYS = 30;
+    static final int MAX_SCHEDULE_WINDOW_DAYS = 366;
 
     /**
      * Method retrieved attendance record from the database by given its unique identifier id.
@@ -46,61 +72,160 @@ public class AttendanceService {
 
     /**
      * Method intended for marking the attendance of a patients specific appointment and updating patients next appointment field.
+     * The attendance summary of the patient is updated in the same transaction.
      *
      * @param attendanceToUpdateId Is the unique identifier of the attendance record to be updated.
      * @throws ApplicationException If no attendance record is found with specified id.
      */
+    @Transactional
     public void markAttendance(final Long attendanceToUpdateId) throws ApplicationException {
         final Attendance attendanceToUpdate = findAttendanceById(attendanceToUpdateId);
-        final Patient patient = attendanceToUpdate.getPatient();
+        final LocalDate appointmentDate = attendanceToUpdate.getDateOfAttendance();
+        final boolean alreadyAttended = Boolean.TRUE.equals(attendanceToUpdate.getDidAttend());
 
         attendanceToUpdate.setDateOfAttendance(LocalDate.now());
         attendanceToUpdate.setDidAttend(true);
         attendanceRepository.save(attendanceToUpdate);
         log.info("Attendance successfully updated.");
 
-        patientService.checkForNextAppointment(patient);
+        final Long patientId = attendanceToUpdate.getPatient().getId();
+        // Recomputing next appointment flushes the attendance, so the summary is updated against the stored row.
+        patientService.checkForNextAppointment(patientId);
+        if (alreadyAttended) {
+            attendanceSummaryService.recompute(List.of(patientId));
+        } else {
+            attendanceSummaryService.recordAttended(patientId, appointmentDate, attendanceToUpdate.getDateOfAttendance());
+        }
     }
 
     /**
-     * Method retrieved all attendance records from database.
+     * Method marks many attendances as attended at once, either by attendance ids or by a roster of patients
+     * for one date. Attendances are updated by a single update statement that skips attendances already marked,
+     * so the report only counts newly marked ones, and next appointment is recomputed
+     * only for the affected patients, also in a single statement. Unlike {@link #markAttendance(Long)}
+     * the date of the attendances is kept as it is.
      *
-     * @return A list containing all attendance stored in database.
-     * @throws ApplicationException If no attendance records can be detected in database.
+     * @param bulkMarkRequestDto The request containing either attendance ids or a date and patient ids.
+     * @return Report with number of marked attendances and the attendance or patient ids that had nothing to mark.
+     * @throws ApplicationException If the request does not pass validation.
      */
-    public List<Attendance> getAllAttendances() throws ApplicationException {
-        log.info("Looking for attendances in the DB.");
-        final List<Attendance> attendances = attendanceRepository.findAll();
+    @Transactional
+    public BulkMarkAttendanceReportDto markAttendances(final BulkMarkAttendanceRequestDto bulkMarkRequestDto) throws ApplicationException {
+        attendanceRequestValidator.validateBulkMarkRequest(bulkMarkRequestDto);
+
+        final List<Long> attendanceIds;
+        final List<Long> missingAttendanceIds = new ArrayList<>();
+        final List<Long> missingPatientIds = new ArrayList<>();
+        if (bulkMarkRequestDto.getAttendanceIds() != null) {
+            final Set<Long> requestedIds = new LinkedHashSet<>(bulkMarkRequestDto.getAttendanceIds());
+            attendanceIds = attendanceRepository.findExistingIds(requestedIds);
+            requestedIds.removeAll(attendanceIds);
+            missingAttendanceIds.addAll(requestedIds);
+        } else {
+            attendanceIds = attendanceRepository.findIdsByDateAndPatientIds(bulkMarkRequestDto.getDate(), bulkMarkRequestDto.getPatientIds());
+        }
 
-        if (attendances.isEmpty()) {
-            log.error("No attendances were found in the DB.");
-            throw new ApplicationException("No attendances were found.", ErrorCode.ATTENDANCE_NOT_FOUND);
+        final List<Long> patientIds = attendanceIds.isEmpty() ? List.of() : attendanceRepository.findPatientIdsByAttendanceIds(attendanceIds);
+        if (bulkMarkRequestDto.getPatientIds() != null) {
+            final Set<Long> requestedPatientIds = new LinkedHashSet<>(bulkMarkRequestDto.getPatientIds());
+            requestedPatientIds.removeAll(patientIds);
+            missingPatientIds.addAll(requestedPatientIds);
         }
 
-        log.info(attendances.size() + " attendances were found in the DB.");
-        return attendances;
+        final int marked = attendanceIds.isEmpty() ? 0 : attendanceRepository.markAttended(attendanceIds);
+        patientService.checkForNextAppointments(patientIds);
+        attendanceSummaryService.recompute(patientIds);
+        log.info(marked + " attendances marked in bulk.");
+
+        return BulkMarkAttendanceReportDto.builder()
+                .marked(marked)
+                .missingAttendanceIds(missingAttendanceIds)
+                .missingPatientIds(missingPatientIds)
+                .build();
+    }
+
+    /**
+     * Method writes all attendance records to the given output stream as they are read from the database.
+     * Records are streamed with a database cursor and detached once written, so memory use does not depend on table size.
+     *
+     * @param outputStream The stream to write attendances to.
+     * @param ndjson       Whether to write one JSON object per line instead of a single JSON array.
+     * @throws IOException If writing to the output stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void writeAllAttendances(final OutputStream outputStream, final boolean ndjson) throws IOException {
+        log.info("Streaming attendances from the DB.");
+        final ObjectWriter writer = objectMapper.writerFor(Attendance.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+
+        try (Stream<Attendance> attendances = attendanceRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            final Iterator<Attendance> iterator = attendances.iterator();
+            while (iterator.hasNext()) {
+                final Attendance attendance = iterator.next();
+                writer.writeValue(generator, attendance);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                entityManager.detach(attendance);
+
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+        log.info(written + " attendances were streamed from the DB.");
     }
 
     /**
      * Method checks the schedule for unattended appointments occurring after current date.
+     * Filtering and ordering is done by the database using the schedule index.
+     *
+     * @return A list of LocalDate objects representing dates of unattended appointments, in ascending order.
+     */
+    public List<LocalDate> checkSchedule() {
+        return attendanceRepository.findUpcomingAppointmentDates(LocalDate.now());
+    }
+
+    /**
+     * Method counts unattended appointments per day within the requested window.
+     * The window defaults to today and the following {@value #DEFAULT_SCHEDULE_WINDOW_DAYS} days
+     * and can not be longer than {@value #MAX_SCHEDULE_WINDOW_DAYS} days.
      *
-     * @return A list of LocalDate objects representing dates of unattended appointments.
-     * @throws ApplicationException If no attendance records can be detected in database.
+     * @param from First day of the window, inclusive. Defaults to today when null.
+     * @param to   Last day of the window, inclusive. Defaults to the end of the default window when null.
+     * @return Number of booked appointments per day, ordered by date. Days without appointments are omitted.
+     * @throws ApplicationException If the window is reversed or too long.
      */
-    public List<LocalDate> checkSchedule() throws ApplicationException {
-        final List<Attendance> attendances = getAllAttendances();
-        final LocalDate today = LocalDate.now();
-
-        return attendances.stream()
-                .filter(attendance -> !attendance.getDidAttend() && attendance.getDateOfAttendance().isAfter(today))
-                .map(Attendance::getDateOfAttendance)
-                .collect(Collectors.toList());
+    public Map<LocalDate, Long> checkDailySchedule(final LocalDate from, final LocalDate to) throws ApplicationException {
+        final LocalDate windowStart = from != null ? from : LocalDate.now();
+        final LocalDate windowEnd = to != null ? to : windowStart.plusDays(DEFAULT_SCHEDULE_WINDOW_DAYS);
+
+        if (windowEnd.isBefore(windowStart) || ChronoUnit.DAYS.between(windowStart, windowEnd) > MAX_SCHEDULE_WINDOW_DAYS) {
+            throw new ApplicationException("Schedule window is incorrect.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+
+        final Map<LocalDate, Long> appointmentsPerDay = new LinkedHashMap<>();
+        for (ScheduleDayDto day : attendanceRepository.countAppointmentsPerDay(windowStart, windowEnd)) {
+            appointmentsPerDay.put(day.getDate(), day.getAppointments());
+        }
+        return appointmentsPerDay;
     }
 
     /**
      * Method schedules an appointment for patient based on the validated attendance request data.
-     * This method retrieved patient by id, maps the attendance request data to an entity,
-     * saves the attendance and updates patient attendances.
+     * This method retrieves a reference to the patient by id, maps the attendance request data to an entity,
+     * saves the attendance and updates patient next appointment.
      *
      * @param attendanceRequestDto The attendance request containing
      *                             information about the appointment.
@@ -109,19 +234,56 @@ public class AttendanceService {
      * @throws ApplicationException if patient with specified id can not be found
      *                              or if AttendanceRequestDto does not pass validation.
      */
+    @Transactional
     public Attendance scheduleAppointment(final AttendanceRequestDto attendanceRequestDto, final Long id) throws ApplicationException {
-        final Patient patientToUpdate = patientService.getPatientById(id);
+        final Patient patientToUpdate = patientService.getPatientReference(id);
 
         attendanceRequestValidator.validateAttendanceRequest(attendanceRequestDto);
         final Attendance attendance = attendanceMappingService.mapAttendanceToEntity(attendanceRequestDto);
         saveAttendance(attendance, patientToUpdate);
 
-        patientToUpdate.getAttendances().add(attendance);
-        patientService.checkForNextAppointment(patientToUpdate);
+        patientService.checkForNextAppointment(id);
+        attendanceSummaryService.recordScheduled(id, 1);
         log.info("New attendance added to patient.");
         return attendance;
     }
 
+    /**
+     * Method schedules a recurring series of appointments for patient, starting at the start date and repeating
+     * every interval days either count times or until the given date, inclusive.
+     * Every date is validated before anything is saved, the whole series is inserted in one batched transaction
+     * and patient next appointment is recomputed once at the end.
+     *
+     * @param seriesRequestDto The series request containing start date, interval and count or until date.
+     * @param id               Is the unique identifier of patient.
+     * @return The attendance entities representing scheduled appointments, in date order.
+     * @throws ApplicationException if patient with specified id can not be found,
+     *                              if the series request is invalid or if any date of the series does not pass validation.
+     */
+    @Transactional
+    public List<Attendance> scheduleAppointmentSeries(final AttendanceSeriesRequestDto seriesRequestDto, final Long id) throws ApplicationException {
+        attendanceRequestValidator.validateAttendanceSeriesRequest(seriesRequestDto);
+        final Patient patientToUpdate = patientService.getPatientReference(id);
+
+        final List<Attendance> series = new ArrayList<>();
+        LocalDate date = seriesRequestDto.getStartDate();
+        while (seriesRequestDto.getCount() != null ? series.size() < seriesRequestDto.getCount() : !date.isAfter(seriesRequestDto.getUntil())) {
+            final AttendanceRequestDto attendanceRequestDto = AttendanceRequestDto.builder().dateOfAttendance(date).patientId(id).build();
+            attendanceRequestValidator.validateAttendanceRequest(attendanceRequestDto);
+            final Attendance attendance = attendanceMappingService.mapAttendanceToEntity(attendanceRequestDto);
+            attendance.setPatient(patientToUpdate);
+            attendance.setDidAttend(false);
+            series.add(attendance);
+            date = date.plusDays(seriesRequestDto.getIntervalDays());
+        }
+        attendanceRepository.saveAll(series);
+
+        patientService.checkForNextAppointment(id);
+        attendanceSummaryService.recordScheduled(id, series.size());
+        log.info(series.size() + " attendances added to patient.");
+        return series;
+    }
+
     /**
      * Sets the patient on the given Attendance entity, marks it as not attended and saves it to the repository.
      *
@@ -0,0 +1,291 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.AttendanceSummaryDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the attendance_summary side table holding scheduled, attended and missed appointments,
+ * last attended date and no-show rate of every patient.
+ * Counters are updated in the transaction of every attendance change, missed appointments are counted
+ * by a nightly pass once their date has passed. Triage queries read the table through its sort indexes
+ * instead of aggregating attendances.
+ */
+@Service
+@Slf4j
+public class AttendanceSummaryService {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private static final String NO_SHOW_RATE = "CASE WHEN attended + missed = 0 THEN 0 ELSE CAST(missed AS DOUBLE PRECISION) / (attended + missed) END";
+    private static final String CREATE_FROM_ATTENDANCES = "INSERT INTO attendance_summary (patient_id, scheduled, attended, missed, last_attended, missed_through) " +
+            "SELECT ?, COUNT(a.id), COUNT(CASE WHEN a.didAttend = TRUE THEN 1 END), " +
+            "COUNT(CASE WHEN a.didAttend = FALSE AND a.dateOfAttendance < ? THEN 1 END), " +
+            "MAX(CASE WHEN a.didAttend = TRUE THEN a.dateOfAttendance END), ? " +
+            "FROM attendance a WHERE a.patient_id = ? " +
+            "HAVING NOT EXISTS (SELECT 1 FROM attendance_summary s WHERE s.patient_id = ?)";
+    private static final String ADD_SCHEDULED = "UPDATE attendance_summary SET scheduled = scheduled + ? WHERE patient_id = ?";
+    private static final String ADD_ATTENDED = "UPDATE attendance_summary SET attended = attended + 1, " +
+            "missed = missed - CASE WHEN missed_through > ? THEN 1 ELSE 0 END, " +
+            "last_attended = CASE WHEN last_attended IS NULL OR last_attended < ? THEN ? ELSE last_attended END " +
+            "WHERE patient_id = ?";
+    private static final String RECOMPUTE = "UPDATE attendance_summary s SET " +
+            "scheduled = (SELECT COUNT(*) FROM attendance a WHERE a.patient_id = s.patient_id), " +
+            "attended = (SELECT COUNT(*) FROM attendance a WHERE a.patient_id = s.patient_id AND a.didAttend = TRUE), " +
+            "missed = (SELECT COUNT(*) FROM attendance a WHERE a.patient_id = s.patient_id AND a.didAttend = FALSE AND a.dateOfAttendance < s.missed_through), " +
+            "last_attended = (SELECT MAX(a.dateOfAttendance) FROM attendance a WHERE a.patient_id = s.patient_id AND a.didAttend = TRUE) " +
+            "WHERE s.patient_id = ?";
+    private static final String UPDATE_RATE = "UPDATE attendance_summary SET no_show_rate = " + NO_SHOW_RATE + " WHERE patient_id = ?";
+    private static final String FIND_STALE_CHUNK = "SELECT patient_id FROM attendance_summary " +
+            "WHERE patient_id > ? AND missed_through < ? ORDER BY patient_id LIMIT ?";
+    private static final String COUNT_MISSED = "UPDATE attendance_summary s SET " +
+            "missed = missed + (SELECT COUNT(*) FROM attendance a WHERE a.patient_id = s.patient_id AND a.didAttend = FALSE " +
+            "AND a.dateOfAttendance >= s.missed_through AND a.dateOfAttendance < ?), " +
+            "missed_through = ? " +
+            "WHERE s.patient_id > ? AND s.patient_id <= ? AND s.missed_through < ?";
+    private static final String UPDATE_RATE_RANGE = "UPDATE attendance_summary SET no_show_rate = " + NO_SHOW_RATE +
+            " WHERE patient_id > ? AND patient_id <= ?";
+    private static final String SELECT_SUMMARY = "SELECT s.patient_id, p.name, p.lastName, s.scheduled, s.attended, s.missed, s.last_attended, s.no_show_rate " +
+            "FROM attendance_summary s JOIN patient p ON p.id = s.patient_id ";
+
+    private static final RowMapper<AttendanceSummaryDto> SUMMARY_MAPPER = (rs, rowNum) -> {
+        final Date lastAttended = rs.getDate(7);
+        return AttendanceSummaryDto.builder()
+                .patientId(rs.getLong(1))
+                .name(rs.getString(2))
+                .lastName(rs.getString(3))
+                .scheduled(rs.getInt(4))
+                .attended(rs.getInt(5))
+                .missed(rs.getInt(6))
+                .lastAttended(lastAttended == null ? null : lastAttended.toLocalDate())
+                .noShowRate(rs.getDouble(8))
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientService patientService;
+    private final int chunkSize;
+
+    public AttendanceSummaryService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, PatientService patientService,
+                                    @Value("${attendance-summary.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.patientService = patientService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method adds newly scheduled appointments to the summary of a patient. Must be called in the scheduling transaction
+     * after the appointments are flushed, a missing summary is then created from the attendances already containing them.
+     *
+     * @param patientId Is the unique identifier of the patient.
+     * @param count     Number of scheduled appointments.
+     */
+    public void recordScheduled(final Long patientId, final int count) {
+        if (createFromAttendances(patientId) == 0) {
+            jdbcTemplate.update(ADD_SCHEDULED, count, patientId);
+        }
+    }
+
+    /**
+     * Method adds an attended appointment to the summary of a patient, an appointment already counted as missed
+     * is moved to attended. Must be called in the marking transaction after the attendance is flushed.
+     *
+     * @param patientId        Is the unique identifier of the patient.
+     * @param appointmentDate  Date the appointment was scheduled for.
+     * @param attendedOn       Date the appointment was attended.
+     */
+    public void recordAttended(final Long patientId, final LocalDate appointmentDate, final LocalDate attendedOn) {
+        if (createFromAttendances(patientId) == 0) {
+            jdbcTemplate.update(ADD_ATTENDED, Date.valueOf(appointmentDate), Date.valueOf(attendedOn), Date.valueOf(attendedOn), patientId);
+            jdbcTemplate.update(UPDATE_RATE, patientId);
+        }
+    }
+
+    /**
+     * Method recomputes the summaries of the given patients from their attendances, one indexed count per patient.
+     * Used by bulk changes where the previous state of every attendance is not known.
+     *
+     * @param patientIds The unique identifiers of the patients.
+     */
+    public void recompute(final Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return;
+        }
+        final List<Object[]> ids = patientIds.stream().map(id -> new Object[]{id}).collect(Collectors.toList());
+        patientIds.forEach(this::createFromAttendances);
+        jdbcTemplate.batchUpdate(RECOMPUTE, ids);
+        jdbcTemplate.batchUpdate(UPDATE_RATE, ids);
+    }
+
+    /**
+     * Method counts unattended appointments dated before today as missed for every patient.
+     * Patients are processed in chunks ordered by id, each chunk in its own short transaction,
+     * and every appointment is counted once because the counted range is remembered per patient.
+     * Runs after midnight by default.
+     */
+    @Scheduled(cron = "${attendance-summary.cron:0 15 0 * * *}")
+    public void countMissedAppointments() {
+        final LocalDate today = LocalDate.now();
+        log.info("Attendance summary missed pass started.");
+        long processed = 0;
+        long afterId = 0;
+        while (true) {
+            final long fromId = afterId;
+            final List<Long> chunk = transactionTemplate.execute(status -> countMissedChunk(fromId, today));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            processed += chunk.size();
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        log.info("Attendance summary missed pass finished, " + processed + " patients updated.");
+    }
+
+    /**
+     * Method returns the attendance summary of a patient.
+     *
+     * @param patientId Is the unique identifier of the patient.
+     * @return The attendance summary, with zero counters when the patient has no appointments.
+     * @throws ApplicationException If the patient with specified id is not found.
+     */
+    public AttendanceSummaryDto getSummary(final Long patientId) throws ApplicationException {
+        patientService.verifyPatientExists(patientId);
+        final List<AttendanceSummaryDto> summaries = jdbcTemplate.query(SELECT_SUMMARY + "WHERE s.patient_id = ?", SUMMARY_MAPPER, patientId);
+        return summaries.isEmpty() ? AttendanceSummaryDto.builder().patientId(patientId).build() : summaries.get(0);
+    }
+
+    /**
+     * Method returns attendance summaries sorted by no-show rate or missed appointments, highest first,
+     * or by last attended date, patients who never attended first. Rows are read in the order of the sort index
+     * and the filters are applied while scanning it, nothing is aggregated.
+     * Limit defaults to {@value #DEFAULT_LIMIT} and is capped at {@value #MAX_LIMIT}.
+     *
+     * @param sort               One of noShowRate, missed or lastAttended, noShowRate when null.
+     * @param minVisits          Minimum number of attended and missed appointments, so a single missed visit does not rank first.
+     * @param minMissed          Minimum number of missed appointments.
+     * @param lastAttendedBefore Only patients who have not attended since this date, when present.
+     * @param limit              Maximum number of summaries.
+     * @return The attendance summaries in the requested order.
+     * @throws ApplicationException If the sort is unknown or the limit is not positive.
+     */
+    public List<AttendanceSummaryDto> getSummaries(final String sort, final Integer minVisits, final Integer minMissed,
+                                                   final LocalDate lastAttendedBefore, final Integer limit) throws ApplicationException {
+        final SummarySort summarySort = SummarySort.of(sort);
+        if (limit != null && limit < 1) {
+            throw new ApplicationException("Limit must be positive.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+
+        // Only requested filters are added, a range condition on another indexed column would steer the planner off the sort index.
+        final StringBuilder sql = new StringBuilder(SELECT_SUMMARY).append("WHERE 1 = 1 ");
+        final List<Object> args = new ArrayList<>();
+        if (minVisits != null) {
+            sql.append("AND s.attended + s.missed >= ? ");
+            args.add(minVisits);
+        }
+        if (minMissed != null) {
+            sql.append("AND s.missed >= ? ");
+            args.add(minMissed);
+        }
+        if (lastAttendedBefore != null) {
+            sql.append("AND (s.last_attended IS NULL OR s.last_attended < ?) ");
+            args.add(Date.valueOf(lastAttendedBefore));
+        }
+        sql.append("ORDER BY ").append(summarySort.orderBy).append(" LIMIT ?");
+        args.add(limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT));
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+
+    /**
+     * Method creates the summary of a patient from its attendances if there is none yet.
+     * Two transactions may both see no summary, the one inserting second gets a duplicate key. Its insert is rolled back
+     * to a savepoint, so the transaction stays usable, and the caller falls through to updating the summary created
+     * by the other transaction, which does not contain the changes of this one.
+     *
+     * @return Number of created summaries, 0 when the summary already exists.
+     */
+    private int createFromAttendances(final Long patientId) {
+        final Date today = Date.valueOf(LocalDate.now());
+        final Integer created;
+        try {
+            created = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+                if (connection.getAutoCommit()) {
+                    return jdbcTemplate.update(CREATE_FROM_ATTENDANCES, patientId, today, today, patientId, patientId);
+                }
+                final Savepoint savepoint = connection.setSavepoint();
+                try {
+                    final int inserted = jdbcTemplate.update(CREATE_FROM_ATTENDANCES, patientId, today, today, patientId, patientId);
+                    connection.releaseSavepoint(savepoint);
+                    return inserted;
+                } catch (DuplicateKeyException e) {
+                    connection.rollback(savepoint);
+                    throw e;
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            log.info("Attendance summary of patient " + patientId + " was created concurrently, updating it.");
+            return 0;
+        }
+        if (created != null && created > 0) {
+            jdbcTemplate.update(UPDATE_RATE, patientId);
+            return created;
+        }
+        return 0;
+    }
+
+    private List<Long> countMissedChunk(final long afterId, final LocalDate today) {
+        final Date todayDate = Date.valueOf(today);
+        final List<Long> patientIds = jdbcTemplate.queryForList(FIND_STALE_CHUNK, Long.class, afterId, todayDate, chunkSize);
+        if (!patientIds.isEmpty()) {
+            final long lastId = patientIds.get(patientIds.size() - 1);
+            jdbcTemplate.update(COUNT_MISSED, todayDate, todayDate, afterId, lastId, todayDate);
+            jdbcTemplate.update(UPDATE_RATE_RANGE, afterId, lastId);
+        }
+        return patientIds;
+    }
+
+    private enum SummarySort {
+        NO_SHOW_RATE("noShowRate", "s.no_show_rate DESC, s.patient_id"),
+        MISSED("missed", "s.missed DESC, s.patient_id"),
+        LAST_ATTENDED("lastAttended", "s.last_attended NULLS FIRST, s.patient_id");
+
+        private final String name;
+        private final String orderBy;
+
+        SummarySort(final String name, final String orderBy) {
+            this.name = name;
+            this.orderBy = orderBy;
+        }
+
+        private static SummarySort of(final String name) throws ApplicationException {
+            if (name == null) {
+                return NO_SHOW_RATE;
+            }
+            for (SummarySort sort : values()) {
+                if (sort.name.equalsIgnoreCase(name)) {
+                    return sort;
+                }
+            }
+            throw new ApplicationException("Unknown attendance summary sort " + name + ".", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+    }
+}
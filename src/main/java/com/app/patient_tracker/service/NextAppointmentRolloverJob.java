@@ -0,0 +1,133 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.RolloverStatusDto;
+import com.app.patient_tracker.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nightly job recomputing Patient.nextAppointment for patients whose stored next appointment is already in the past.
+ * Stale patients are processed in chunks ordered by id, each chunk in its own short transaction.
+ * Progress of the current or last run is published as patient.rollover.* gauges.
+ */
+@Service
+@Slf4j
+public class NextAppointmentRolloverJob implements MeterBinder {
+
+    private final PatientRepository patientRepository;
+    private final PatientService patientService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedPatients = new AtomicLong();
+    private final AtomicLong processedChunks = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public NextAppointmentRolloverJob(PatientRepository patientRepository, PatientService patientService, TransactionTemplate transactionTemplate,
+                                      @Value("${next-appointment-rollover.chunk-size:500}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.patientService = patientService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method recomputes next appointment of every patient whose next appointment is before today.
+     * Runs after midnight by default, a run is skipped when the previous one is still in progress.
+     */
+    @Scheduled(cron = "${next-appointment-rollover.cron:0 5 0 * * *}")
+    public void rollOverStaleNextAppointments() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Next appointment rollover is already running.");
+            return;
+        }
+        final LocalDate today = LocalDate.now();
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        processedPatients.set(0);
+        processedChunks.set(0);
+        log.info("Next appointment rollover started.");
+
+        try {
+            Long afterId = 0L;
+            List<Long> chunk = recomputeChunk(today, afterId);
+            while (!chunk.isEmpty()) {
+                chunk.forEach(patientService::evictPatient);
+                processedPatients.addAndGet(chunk.size());
+                processedChunks.incrementAndGet();
+                log.info("Next appointment rollover processed " + processedPatients.get() + " patients.");
+
+                afterId = chunk.get(chunk.size() - 1);
+                chunk = recomputeChunk(today, afterId);
+            }
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            log.info("Next appointment rollover finished in " + Duration.between(startedAt, finishedAt).toMillis()
+                    + " ms, " + processedPatients.get() + " patients updated.");
+        }
+    }
+
+    /**
+     * Method returns progress of the current run, or the result of the last finished run.
+     *
+     * @return Status of the rollover job.
+     */
+    public RolloverStatusDto getStatus() {
+        final LocalDateTime start = startedAt;
+        final LocalDateTime end = finishedAt;
+        return RolloverStatusDto.builder()
+                .running(running.get())
+                .startedAt(start)
+                .finishedAt(end)
+                .durationMillis(start == null ? null : Duration.between(start, end != null ? end : LocalDateTime.now()).toMillis())
+                .processedPatients(processedPatients.get())
+                .processedChunks(processedChunks.get())
+                .build();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("patient.rollover.running", running, value -> value.get() ? 1 : 0)
+                .description("Whether the next appointment rollover is running")
+                .register(registry);
+        Gauge.builder("patient.rollover.processed.patients", processedPatients, AtomicLong::get)
+                .description("Patients updated by the current or last rollover run")
+                .register(registry);
+        TimeGauge.builder("patient.rollover.duration", this, TimeUnit.MILLISECONDS,
+                        job -> {
+                            final Long durationMillis = job.getStatus().getDurationMillis();
+                            return durationMillis == null ? 0 : durationMillis;
+                        })
+                .description("Duration of the current or last rollover run")
+                .register(registry);
+    }
+
+    private List<Long> recomputeChunk(final LocalDate today, final Long afterId) {
+        return transactionTemplate.execute(status -> {
+            final List<Long> patientIds = patientRepository.findStaleNextAppointmentIds(today, afterId, PageRequest.of(0, chunkSize));
+            if (!patientIds.isEmpty()) {
+                patientRepository.recomputeNextAppointments(patientIds, today);
+            }
+            return patientIds;
+        });
+    }
+}
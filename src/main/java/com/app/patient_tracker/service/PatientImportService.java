@@ -0,0 +1,254 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.ImportRowErrorDto;
+import com.app.patient_tracker.dto.PatientImportReportDto;
+import com.app.patient_tracker.dto.PatientRequestDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import com.app.patient_tracker.validator.PatientRequestValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service class responsible for bulk patient import from NDJSON or CSV files.
+ * Rows are validated one by one and valid patients are persisted in chunks, each chunk in its own transaction
+ * with JDBC batch inserts. Invalid rows are reported back with their line number.
+ */
+@Service
+@Slf4j
+public class PatientImportService {
+
+    private static final String[] CSV_COLUMNS = {"name", "lastname", "dob", "contactinfo"};
+
+    private final PatientRepository patientRepository;
+    private final PatientMappingService mappingService;
+    private final PatientRequestValidator patientRequestValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final PatientNameIndex patientNameIndex;
+    private final int chunkSize;
+
+    public PatientImportService(PatientRepository patientRepository, PatientMappingService mappingService, PatientRequestValidator patientRequestValidator,
+                                ObjectMapper objectMapper, TransactionTemplate transactionTemplate, EntityManager entityManager, PatientNameIndex patientNameIndex,
+                                @Value("${patient-import.chunk-size:500}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.mappingService = mappingService;
+        this.patientRequestValidator = patientRequestValidator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.patientNameIndex = patientNameIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method imports patients from newline delimited JSON, one patient request object per line.
+     *
+     * @param inputStream The stream to read patients from.
+     * @return Report with number of imported and failed rows and the error of every failed row.
+     * @throws IOException If reading from the stream fails.
+     */
+    public PatientImportReportDto importNdjson(final InputStream inputStream) throws IOException {
+        try (BufferedReader reader = newReader(inputStream)) {
+            return importRows(reader, 0, this::parseJsonRow);
+        }
+    }
+
+    /**
+     * Method imports patients from CSV with a header row naming the name, lastName, dob and contactInfo columns.
+     *
+     * @param inputStream The stream to read patients from.
+     * @return Report with number of imported and failed rows and the error of every failed row.
+     * @throws IOException          If reading from the stream fails.
+     * @throws ApplicationException If the header row is missing or lacks one of the columns, nothing is imported then.
+     */
+    public PatientImportReportDto importCsv(final InputStream inputStream) throws IOException, ApplicationException {
+        try (BufferedReader reader = newReader(inputStream)) {
+            String line;
+            long lineNumber = 0;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                throw new ApplicationException("CSV header is missing.", ErrorCode.PATIENT_REQUEST_DTO_EXCEPTION);
+            }
+            final Map<String, Integer> header = parseCsvHeader(line);
+            return importRows(reader, lineNumber, row -> parseCsvRow(row, header));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        PatientRequestDto parse(String line) throws ApplicationException;
+    }
+
+    private BufferedReader newReader(final InputStream inputStream) {
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private PatientImportReportDto importRows(final BufferedReader reader, final long linesRead, final RowParser rowParser) throws IOException {
+        final ImportState state = new ImportState();
+
+        String line;
+        long lineNumber = linesRead;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                final PatientRequestDto patientDto = rowParser.parse(line);
+                patientRequestValidator.validatePatientRequest(patientDto);
+                state.addPending(lineNumber, mappingService.mapPatientToEntity(patientDto));
+            } catch (ApplicationException e) {
+                state.addError(lineNumber, e.getMessage());
+            }
+
+            if (state.pending.size() >= chunkSize) {
+                persistChunk(state);
+            }
+        }
+        persistChunk(state);
+
+        log.info(state.imported + " patients were imported, " + state.errors.size() + " rows failed.");
+        return PatientImportReportDto.builder()
+                .imported(state.imported)
+                .failed(state.errors.size())
+                .errors(state.errors)
+                .build();
+    }
+
+    private void persistChunk(final ImportState state) {
+        if (state.pending.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> patientRepository.saveAll(state.pending));
+            state.pending.forEach(patient -> patientNameIndex.put(patient.getId(), patient.getName(), patient.getLastName(), patient.getDob()));
+            state.imported += state.pending.size();
+        } catch (RuntimeException e) {
+            log.error("Failed to import chunk of " + state.pending.size() + " patients.", e);
+            for (Long lineNumber : state.pendingLines) {
+                state.addError(lineNumber, "Patient could not be saved.");
+            }
+        } finally {
+            state.pending = new ArrayList<>(chunkSize);
+            state.pendingLines = new ArrayList<>(chunkSize);
+            entityManager.clear();
+        }
+    }
+
+    private PatientRequestDto parseJsonRow(final String line) throws ApplicationException {
+        try {
+            return objectMapper.readValue(line, PatientRequestDto.class);
+        } catch (JsonProcessingException e) {
+            throw new ApplicationException("Row is not a valid patient JSON object.", ErrorCode.PATIENT_REQUEST_DTO_EXCEPTION);
+        }
+    }
+
+    private Map<String, Integer> parseCsvHeader(final String line) throws ApplicationException {
+        final List<String> columns = splitCsvLine(line);
+        final Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!header.containsKey(column)) {
+                throw new ApplicationException("CSV header is missing column " + column + ".", ErrorCode.PATIENT_REQUEST_DTO_EXCEPTION);
+            }
+        }
+        return header;
+    }
+
+    private PatientRequestDto parseCsvRow(final String line, final Map<String, Integer> header) throws ApplicationException {
+        final List<String> values = splitCsvLine(line);
+        final String dob = csvValue(values, header.get("dob"));
+        try {
+            return PatientRequestDto.builder()
+                    .name(csvValue(values, header.get("name")))
+                    .lastName(csvValue(values, header.get("lastname")))
+                    .dob(dob == null ? null : LocalDate.parse(dob))
+                    .contactInfo(csvValue(values, header.get("contactinfo")))
+                    .build();
+        } catch (DateTimeParseException e) {
+            throw new ApplicationException("Date of birth " + dob + " is not an ISO date.", ErrorCode.PATIENT_REQUEST_DTO_EXCEPTION);
+        }
+    }
+
+    private String csvValue(final List<String> values, final int index) {
+        if (index >= values.size() || values.get(index).isBlank()) {
+            return null;
+        }
+        return values.get(index).trim();
+    }
+
+    /**
+     * Splits one CSV line on commas, honouring double quoted fields and doubled quotes inside them.
+     */
+    static List<String> splitCsvLine(final String line) {
+        final List<String> values = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static class ImportState {
+        private List<Patient> pending = new ArrayList<>();
+        private List<Long> pendingLines = new ArrayList<>();
+        private final List<ImportRowErrorDto> errors = new ArrayList<>();
+        private long imported;
+
+        private void addPending(final long lineNumber, final Patient patient) {
+            pending.add(patient);
+            pendingLines.add(lineNumber);
+        }
+
+        private void addError(final long lineNumber, final String message) {
+            errors.add(new ImportRowErrorDto(lineNumber, message));
+        }
+    }
+}
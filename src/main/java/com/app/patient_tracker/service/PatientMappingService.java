@@ -31,6 +31,26 @@ public class PatientMappingService {
                 .build();
     }
 
+    /**
+     * Maps a Patient entity to a PatientResponseDto object for api response.
+     *
+     * @param patient The Patient entity to be mapped to response DTO.
+     * @return PatientResponseDto object containing mapped patient information.
+     */
+    public PatientResponseDto mapPatientToResponse(final Patient patient) {
+        return PatientResponseDto.builder()
+                .id(patient.getId())
+                .name(patient.getName())
+                .lastName(patient.getLastName())
+                .dob(patient.getDob())
+                .contactInfo(patient.getContactInfo())
+                .assessments(patient.getAssessments())
+                .attendances(patient.getAttendances())
+                .patientProgress(patient.getPatientProgress())
+                .nextAppointment(patient.getNextAppointment())
+                .build();
+    }
+
     /**
      * Maps a list of Patient entities to a list of PatientResponseDto objects for api response.
      *
@@ -38,22 +58,10 @@ public class PatientMappingService {
      * @return A list of PatientResponseDto objects containing mapped patient information.
      */
     public List<PatientResponseDto> mapPatientsToResponse(final List<Patient> patients) {
-        final List<PatientResponseDto> mappedPatients = new ArrayList<>();
+        final List<PatientResponseDto> mappedPatients = new ArrayList<>(patients.size());
 
         for (Patient patient : patients) {
-            PatientResponseDto dto = PatientResponseDto.builder()
-                    .id(patient.getId())
-                    .name(patient.getName())
-                    .lastName(patient.getLastName())
-                    .dob(patient.getDob())
-                    .contactInfo(patient.getContactInfo())
-                    .assessments(patient.getAssessments())
-                    .attendances(patient.getAttendances())
-                    .patientProgress(patient.getPatientProgress())
-                    .nextAppointment(patient.getNextAppointment())
-                    .build();
-
-            mappedPatients.add(dto);
+            mappedPatients.add(mapPatientToResponse(patient));
         }
         return mappedPatients;
     }
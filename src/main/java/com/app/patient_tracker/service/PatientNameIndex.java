@@ -0,0 +1,369 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.PatientSuggestionDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead index over patient name, last name and date of birth.
+ * Every word of a patient is indexed by the n-grams of the word prefixed with a word boundary, the boundary bigram
+ * and all trigrams, so a query word of any length maps to grams that only match words starting with it.
+ * A patient occupies a slot, posting lists are append-only arrays of slots in increasing order, so intersecting them
+ * is a merge over sorted arrays. Updated and deleted patients leave dead slots behind, the index is compacted
+ * when more than a quarter of the slots are dead.
+ * Built from the patient table at startup and kept in sync by the patient write paths, queries never touch the database.
+ */
+@Service
+@Slf4j
+public class PatientNameIndex implements MeterBinder {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+    static final int MAX_CANDIDATES = 1000;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}-]+");
+    private static final int REBUILD_BATCH_SIZE = 10000;
+    private static final int MIN_COMPACTION_SLOTS = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] lastNames = new String[1024];
+    private long[] dobs = new long[1024];
+    private String[] keys = new String[1024];
+    private int slots;
+    private int deadSlots;
+
+    public PatientNameIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Method builds the index by streaming the patient table in batches ordered by id.
+     */
+    @PostConstruct
+    public void rebuild() {
+        long afterId = 0;
+        int indexed = 0;
+        lock.writeLock().lock();
+        try {
+            clear();
+            while (true) {
+                final List<Object[]> rows = jdbcTemplate.query(
+                        "SELECT id, name, lastName, dob FROM patient WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDate(4).toLocalDate()},
+                        afterId, REBUILD_BATCH_SIZE);
+                rows.forEach(row -> add((Long) row[0], (String) row[1], (String) row[2], (LocalDate) row[3]));
+                indexed += rows.size();
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Patient name index built with " + indexed + " patients.");
+    }
+
+    /**
+     * Method adds or replaces a patient once the current transaction commits, or right away outside a transaction.
+     *
+     * @param id       Is the unique identifier of the patient.
+     * @param name     Patient name.
+     * @param lastName Patient last name.
+     * @param dob      Patient date of birth.
+     */
+    public void putAfterCommit(final Long id, final String name, final String lastName, final LocalDate dob) {
+        afterCommit(() -> put(id, name, lastName, dob));
+    }
+
+    /**
+     * Method removes a patient once the current transaction commits, or right away outside a transaction.
+     *
+     * @param id Is the unique identifier of the patient.
+     */
+    public void removeAfterCommit(final Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    public void put(final Long id, final String name, final String lastName, final LocalDate dob) {
+        lock.writeLock().lock();
+        try {
+            kill(id);
+            add(id, name, lastName, dob);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Long id) {
+        lock.writeLock().lock();
+        try {
+            kill(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Method suggests patients whose name, last name or date of birth words start with every word of the query,
+     * ordered by last name and name. Limit defaults to {@value #DEFAULT_LIMIT} and is capped at {@value #MAX_LIMIT},
+     * at most {@value #MAX_CANDIDATES} matches are ordered, so very short queries return a subset of all matches.
+     *
+     * @param query Typed text, for example "hal jim" or "halpert 1980".
+     * @param limit Requested number of suggestions, null for the default.
+     * @return Matching patients.
+     */
+    public List<PatientSuggestionDto> suggest(final String query, final Integer limit) {
+        final int maxResults = limit == null || limit < 1 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        final List<String> words = words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        final Set<Long> grams = new LinkedHashSet<>();
+        words.forEach(word -> addGrams(word, grams, false));
+        final List<String> boundedWords = new ArrayList<>(words.size());
+        words.forEach(word -> boundedWords.add(" " + word));
+
+        lock.readLock().lock();
+        try {
+            final int[][] lists = new int[grams.size()][];
+            final int[] sizes = new int[grams.size()];
+            int i = 0;
+            for (final Long gram : grams) {
+                final PostingList postingList = postings.get(gram);
+                if (postingList == null) {
+                    return List.of();
+                }
+                lists[i] = postingList.slots;
+                sizes[i++] = postingList.size;
+            }
+            int smallest = 0;
+            for (int j = 1; j < lists.length; j++) {
+                if (sizes[j] < sizes[smallest]) {
+                    smallest = j;
+                }
+            }
+
+            final List<Integer> matches = new ArrayList<>();
+            final int[] positions = new int[lists.length];
+            for (int k = 0; k < sizes[smallest] && matches.size() < MAX_CANDIDATES; k++) {
+                final int slot = lists[smallest][k];
+                if (ids[slot] != 0 && inAllLists(slot, lists, sizes, positions) && matchesAllWords(keys[slot], boundedWords)) {
+                    matches.add(slot);
+                }
+            }
+            matches.sort(Comparator.<Integer, String>comparing(slot -> lastNames[slot], String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(slot -> names[slot], String.CASE_INSENSITIVE_ORDER)
+                    .thenComparingLong(slot -> ids[slot]));
+            final List<PatientSuggestionDto> suggestions = new ArrayList<>(Math.min(matches.size(), maxResults));
+            for (final int slot : matches.subList(0, Math.min(matches.size(), maxResults))) {
+                suggestions.add(PatientSuggestionDto.builder()
+                        .id(ids[slot])
+                        .name(names[slot])
+                        .lastName(lastNames[slot])
+                        .dob(LocalDate.ofEpochDay(dobs[slot]))
+                        .build());
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("patient.name.index.patients", this, PatientNameIndex::size)
+                .description("Patients in the typeahead index")
+                .register(registry);
+    }
+
+    private void add(final Long id, final String name, final String lastName, final LocalDate dob) {
+        if (slots == ids.length) {
+            final int capacity = slots * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+            dobs = Arrays.copyOf(dobs, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        final int slot = slots++;
+        final String key = String.join(" ", words(name + " " + lastName + " " + dob));
+        ids[slot] = id;
+        names[slot] = name;
+        lastNames[slot] = lastName;
+        dobs[slot] = dob.toEpochDay();
+        keys[slot] = " " + key;
+        slotsById.put(id, slot);
+
+        final Set<Long> grams = new LinkedHashSet<>();
+        words(key).forEach(word -> addGrams(word, grams, true));
+        for (final Long gram : grams) {
+            postings.computeIfAbsent(gram, newGram -> new PostingList()).add(slot);
+        }
+    }
+
+    private void kill(final Long id) {
+        final Integer slot = slotsById.remove(id);
+        if (slot != null) {
+            ids[slot] = 0;
+            names[slot] = null;
+            lastNames[slot] = null;
+            keys[slot] = null;
+            deadSlots++;
+        }
+    }
+
+    private void compactIfSparse() {
+        if (deadSlots >= MIN_COMPACTION_SLOTS && deadSlots * 4 > slots) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        final long[] liveIds = new long[slotsById.size()];
+        final String[] liveNames = new String[liveIds.length];
+        final String[] liveLastNames = new String[liveIds.length];
+        final long[] liveDobs = new long[liveIds.length];
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] != 0) {
+                liveIds[live] = ids[slot];
+                liveNames[live] = names[slot];
+                liveLastNames[live] = lastNames[slot];
+                liveDobs[live++] = dobs[slot];
+            }
+        }
+        clear();
+        for (int i = 0; i < live; i++) {
+            add(liveIds[i], liveNames[i], liveLastNames[i], LocalDate.ofEpochDay(liveDobs[i]));
+        }
+        log.info("Patient name index compacted to " + live + " patients.");
+    }
+
+    private void clear() {
+        postings.clear();
+        slotsById.clear();
+        ids = new long[1024];
+        names = new String[1024];
+        lastNames = new String[1024];
+        dobs = new long[1024];
+        keys = new String[1024];
+        slots = 0;
+        deadSlots = 0;
+    }
+
+    private static boolean inAllLists(final int slot, final int[][] lists, final int[] sizes, final int[] positions) {
+        for (int j = 0; j < lists.length; j++) {
+            int position = Arrays.binarySearch(lists[j], positions[j], sizes[j], slot);
+            if (position < 0) {
+                positions[j] = -position - 1;
+                return false;
+            }
+            positions[j] = position;
+        }
+        return true;
+    }
+
+    private static boolean matchesAllWords(final String key, final List<String> boundedWords) {
+        for (final String word : boundedWords) {
+            if (!key.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addGrams(final String word, final Set<Long> grams, final boolean indexing) {
+        final String bounded = " " + word;
+        if (indexing || bounded.length() == 2) {
+            grams.add(gram(bounded.charAt(0), bounded.charAt(1), '\0'));
+        }
+        for (int i = 0; i + 3 <= bounded.length(); i++) {
+            grams.add(gram(bounded.charAt(i), bounded.charAt(i + 1), bounded.charAt(i + 2)));
+        }
+    }
+
+    private static long gram(final char first, final char second, final char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    static List<String> words(final String text) {
+        if (text == null) {
+            return List.of();
+        }
+        final String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        final List<String> words = new ArrayList<>();
+        for (final String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class PostingList {
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(final int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size + (size >> 1) + 1);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
@@ -2,19 +2,28 @@ package com.app.patient_tracker.service;
 
 import com.app.patient_tracker.dto.*;
 import com.app.patient_tracker.exception.*;
+import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Attendance;
 import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
 import com.app.patient_tracker.repository.PatientRepository;
+import com.app.patient_tracker.util.CacheConfig;
 import com.app.patient_tracker.validator.PatientRequestValidator;
 import com.app.patient_tracker.validator.PatientUpdateRequestValidator;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,123 +34,332 @@ import java.util.List;
 @Data
 public class PatientService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_RECENT_PATIENTS = 50;
+
     private final PatientRepository patientRepository;
     private final CacheManager cacheManager;
     private final Cache cache;
     private final PatientMappingService mappingService;
     private final PatientUpdateRequestValidator patientUpdateDataValidator;
     private final PatientRequestValidator patientRequestValidator;
+    private final ProgressSearchIndex progressSearchIndex;
+    private final PatientNameIndex patientNameIndex;
+    private final AssessmentStatistics assessmentStatistics;
 
-    public PatientService(PatientRepository patientRepository, CacheManager cacheManager, PatientMappingService mappingService, PatientUpdateRequestValidator patientUpdateDataValidator, PatientRequestValidator patientRequestValidator) {
+    public PatientService(PatientRepository patientRepository, CacheManager cacheManager, PatientMappingService mappingService, PatientUpdateRequestValidator patientUpdateDataValidator, PatientRequestValidator patientRequestValidator,
+                          ProgressSearchIndex progressSearchIndex, PatientNameIndex patientNameIndex, AssessmentStatistics assessmentStatistics) {
         this.patientRepository = patientRepository;
         this.cacheManager = cacheManager;
-        this.cache = cacheManager.getCache("cache");
+        this.cache = cacheManager.getCache(CacheConfig.PATIENT_CACHE);
         this.mappingService = mappingService;
         this.patientUpdateDataValidator = patientUpdateDataValidator;
         this.patientRequestValidator = patientRequestValidator;
+        this.progressSearchIndex = progressSearchIndex;
+        this.patientNameIndex = patientNameIndex;
+        this.assessmentStatistics = assessmentStatistics;
     }
 
     /**
-     * Method checks for the next appointment for the given patient.
-     * Updates the patient's next appointment field based on the first unattended attendance that occurs after current date.
+     * Method checks for the next appointment for the patient with given id.
+     * Sets the patient's next appointment field to the earliest unattended attendance that occurs after current date,
+     * or null if no such attendance exists. Done by a single update statement, no patient or attendance is loaded.
      *
-     * @param patient The patient for whom to check the next appointment.
-     *                <p>
-     *                Updates the next appointment date for the patient or sets null if no suitable appointment is found.
+     * @param patientId The unique identifier of the patient for whom to check the next appointment.
      */
-    public void checkForNextAppointment(final Patient patient) {
-        final LocalDate localDate = patient.getAttendances().stream()
-                .filter(attendance -> !attendance.getDidAttend() && attendance.getDateOfAttendance().isAfter(LocalDate.now()))
-                .map(Attendance::getDateOfAttendance)
-                .findFirst()
-                .orElse(null);
-
-        patient.setNextAppointment(localDate);
-        patientRepository.save(patient);
+    @Transactional
+    public void checkForNextAppointment(final Long patientId) {
+        patientRepository.recomputeNextAppointment(patientId, LocalDate.now());
+        evictPatient(patientId);
         log.info("Patient nextAppointment updated");
     }
 
     /**
-     * Method retrieves a list of patients that were found in database.
+     * Method recomputes the next appointment of all patients with given ids in a single update statement.
      *
-     * @return A list containing all patients stored in the database.
-     * @throws ApplicationException If the patient list is empty in the DB.
+     * @param patientIds The unique identifiers of the patients whose next appointment should be recomputed.
      */
-    public List<Patient> getAllPatients() throws ApplicationException {
-        log.info("Looking for patients in DB.");
-        final List<Patient> patients = patientRepository.findAll();
-
-        if (patients.isEmpty()) {
-            log.error("DB is empty. No patients were found.");
-            throw new ApplicationException("No patients were found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION);
+    @Transactional
+    public void checkForNextAppointments(final Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return;
         }
+        patientRepository.recomputeNextAppointments(patientIds, LocalDate.now());
+        patientIds.forEach(this::evictPatient);
+        log.info("nextAppointment updated for " + patientIds.size() + " patients");
+    }
+
+    /**
+     * Method retrieves one page of patients using keyset pagination on patient id.
+     * Page size defaults to {@value #DEFAULT_PAGE_SIZE} and is capped at {@value #MAX_PAGE_SIZE}.
+     *
+     * @param pageRequest The page request containing cursor, page size, direction and optional filters.
+     * @return A page of patient response DTOs and the cursor of the next page, null if this is the last page.
+     * @throws ApplicationException If requested page size is not positive.
+     */
+    public PatientPageResponseDto<PatientResponseDto> getPatientsPage(final PatientPageRequest pageRequest) throws ApplicationException {
+        final int pageSize = resolvePageSize(pageRequest.getSize());
+        log.info("Looking for " + pageSize + " patients after id = " + pageRequest.getAfterId() + " in the DB.");
+
+        final List<Patient> patients = patientRepository.findPatientsPage(pageRequest, pageSize + 1);
+        final boolean hasNextPage = patients.size() > pageSize;
+        final List<Patient> page = hasNextPage ? patients.subList(0, pageSize) : patients;
+
+        return PatientPageResponseDto.<PatientResponseDto>builder()
+                .patients(mappingService.mapPatientsToResponse(page))
+                .nextCursor(hasNextPage ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Method retrieves one page of patient summaries using keyset pagination on patient id.
+     * Summaries are projected by the database, so no patient entity or child collection is loaded.
+     *
+     * @param pageRequest The page request containing cursor, page size, direction and optional filters.
+     * @return A page of patient summaries and the cursor of the next page, null if this is the last page.
+     * @throws ApplicationException If requested page size is not positive.
+     */
+    public PatientPageResponseDto<PatientSummaryDto> getPatientSummariesPage(final PatientPageRequest pageRequest) throws ApplicationException {
+        final int pageSize = resolvePageSize(pageRequest.getSize());
+        log.info("Looking for " + pageSize + " patient summaries after id = " + pageRequest.getAfterId() + " in the DB.");
+
+        final List<PatientSummaryDto> summaries = patientRepository.findPatientSummariesPage(pageRequest, pageSize + 1);
+        final boolean hasNextPage = summaries.size() > pageSize;
+        final List<PatientSummaryDto> page = hasNextPage ? summaries.subList(0, pageSize) : summaries;
+
+        return PatientPageResponseDto.<PatientSummaryDto>builder()
+                .patients(page)
+                .nextCursor(hasNextPage ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
 
-        log.info(patients.size() + " patients were found in the DB.");
-        return patients;
+    private int resolvePageSize(final Integer size) throws ApplicationException {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new ApplicationException("Page size must be positive.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
     /**
-     * Method retrieves a patient from the database by its unique identifier id.
+     * Method retrieves a patient by its unique identifier id.
+     * The patient is served from the cache when present, otherwise the full record is loaded from the database
+     * in three statements: patient joined with attendances, then assessments and progress, and put into the cache.
+     * The cache holds a detached copy, see {@link #detachedCopy(Patient)}.
      *
      * @param id Is the unique identifier of the patient object.
      * @return The patient object itself.
      * @throws ApplicationException If patient with specified id can not be found in the database.
      */
+    @Transactional(readOnly = true)
     public Patient getPatientById(final Long id) throws ApplicationException {
+        final Patient cachedPatient = cache.get(id, Patient.class);
+        if (cachedPatient != null) {
+            return detachedCopy(cachedPatient);
+        }
+
         log.info("Looking for patient with id= " + id + " in the DB.");
-        //TODO: caching
-        return patientRepository.findById(id)
+        final Patient patient = patientRepository.findWithScheduleById(id)
                 .orElseThrow(() -> new ApplicationException("Patient with id = " + id + " can not be found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION));
+
+        Hibernate.initialize(patient.getAssessments());
+        Hibernate.initialize(patient.getPatientProgress());
+        cache.put(id, detachedCopy(patient));
+        return patient;
+    }
+
+    /**
+     * Method copies a patient and its child records into plain objects that are not attached to any persistence context.
+     * The cache holds such a copy and hands out a new one on every hit, so no instance is shared between threads.
+     *
+     * @param patient The patient with initialized child collections.
+     * @return A detached copy of the patient, whose child records refer back to the copy.
+     */
+    static Patient detachedCopy(final Patient patient) {
+        final Patient copy = Patient.builder()
+                .id(patient.getId())
+                .name(patient.getName())
+                .lastName(patient.getLastName())
+                .dob(patient.getDob())
+                .contactInfo(patient.getContactInfo())
+                .nextAppointment(patient.getNextAppointment())
+                .build();
+        final List<Attendance> attendances = new ArrayList<>();
+        if (patient.getAttendances() != null) {
+            patient.getAttendances().forEach(attendance -> attendances.add(Attendance.builder()
+                    .id(attendance.getId())
+                    .didAttend(attendance.getDidAttend())
+                    .dateOfAttendance(attendance.getDateOfAttendance())
+                    .patient(copy)
+                    .build()));
+        }
+        final List<Assessment> assessments = new ArrayList<>();
+        if (patient.getAssessments() != null) {
+            patient.getAssessments().forEach(assessment -> assessments.add(Assessment.builder()
+                    .id(assessment.getId())
+                    .title(assessment.getTitle())
+                    .points(assessment.getPoints())
+                    .createdAt(assessment.getCreatedAt())
+                    .updatedAt(assessment.getUpdatedAt())
+                    .patient(copy)
+                    .build()));
+        }
+        final List<Progress> patientProgress = new ArrayList<>();
+        if (patient.getPatientProgress() != null) {
+            patient.getPatientProgress().forEach(progress -> patientProgress.add(Progress.builder()
+                    .id(progress.getId())
+                    .notes(progress.getNotes())
+                    .patient(copy)
+                    .build()));
+        }
+        copy.setAttendances(attendances);
+        copy.setAssessments(assessments);
+        copy.setPatientProgress(patientProgress);
+        return copy;
+    }
+
+    /**
+     * Method returns a reference to an existing patient, suitable for associating new child records with it.
+     * Existence is checked against the cache first, so no patient row or collection is loaded for cached patients.
+     *
+     * @param id Is the unique identifier of the patient object.
+     * @return A reference to the patient with specified id.
+     * @throws ApplicationException If patient with specified id can not be found in the database.
+     */
+    public Patient getPatientReference(final Long id) throws ApplicationException {
+        verifyPatientExists(id);
+        return getVerifiedPatientReference(id);
+    }
+
+    /**
+     * Method returns a reference to a patient whose existence was already checked with {@link #verifyPatientExists(Long)},
+     * without querying the database.
+     *
+     * @param id Is the unique identifier of the patient object.
+     * @return A reference to the patient with specified id.
+     */
+    public Patient getVerifiedPatientReference(final Long id) {
+        return patientRepository.getById(id);
+    }
+
+    /**
+     * Method checks that a patient exists, against the cache first and otherwise with an existence query.
+     *
+     * @param id Is the unique identifier of the patient object.
+     * @throws ApplicationException If patient with specified id can not be found in the database.
+     */
+    public void verifyPatientExists(final Long id) throws ApplicationException {
+        if (cache.get(id) == null && !patientRepository.existsById(id)) {
+            throw new ApplicationException("Patient with id = " + id + " can not be found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION);
+        }
+    }
+
+    /**
+     * Method removes the patient with specified id from the cache, so the next lookup reads it from the database.
+     * When called inside a transaction the entry is evicted again after completion,
+     * so a concurrent lookup can not put back the state from before the commit.
+     *
+     * @param id Is the unique identifier of the patient object.
+     */
+    public void evictPatient(final Long id) {
+        if (id == null) {
+            return;
+        }
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    cache.evict(id);
+                }
+            });
+        }
     }
 
     /**
      * Method validates given dto and adds a new patient to the database based on the provided patient request DTO.
+     * Only the created patient is mapped, so registration cost does not depend on the number of stored patients.
      *
      * @param patientDto The patient request Dto containing information about the new patient.
-     * @return A list of patient response DTOs after adding new patient.
-     * @throws ApplicationException if no patients can not be found in the database.
+     * @return The patient response DTO of the created patient, including its generated id.
+     * @throws ApplicationException if patient request does not pass the validation.
      */
-    public List<PatientResponseDto> addNewPatient(final PatientRequestDto patientDto) throws ApplicationException {
+    public PatientResponseDto addNewPatient(final PatientRequestDto patientDto) throws ApplicationException {
         patientRequestValidator.validatePatientRequest(patientDto);
-        final Patient patient = mappingService.mapPatientToEntity(patientDto);
-        patientRepository.save(patient);
+        final Patient patient = patientRepository.save(mappingService.mapPatientToEntity(patientDto));
+        patientNameIndex.putAfterCommit(patient.getId(), patient.getName(), patient.getLastName(), patient.getDob());
+        if (patient.getAssessments() != null) {
+            patient.getAssessments().forEach(assessment -> assessmentStatistics.recordAfterCommit(assessment.getTitle(), assessment.getPoints(),
+                    assessment.getPatient() != null ? assessment.getPatient().getId() : null));
+        }
         log.info("New patient was added.");
 
-        final List<Patient> allPatients = patientRepository.findAll();
-        return mappingService.mapPatientsToResponse(allPatients);
+        return mappingService.mapPatientToResponse(patient);
+    }
+
+    /**
+     * Method retrieves the most recently registered patients, newest first.
+     * The number of returned patients is capped at {@value #MAX_RECENT_PATIENTS}.
+     *
+     * @param limit Requested number of patients.
+     * @return A list of patient response DTOs of the most recently registered patients.
+     * @throws ApplicationException If requested limit is not positive.
+     */
+    public List<PatientResponseDto> getRecentPatients(final int limit) throws ApplicationException {
+        if (limit < 1) {
+            throw new ApplicationException("Limit must be positive.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        final List<Patient> patients = patientRepository.findByOrderByIdDesc(PageRequest.of(0, Math.min(limit, MAX_RECENT_PATIENTS)));
+        return mappingService.mapPatientsToResponse(patients);
     }
 
     /**
      * Method updates the information of an existing patient in database based on the provided update request.
+     * Only the fields given in the request are updated.
      *
      * @param patientId            The unique identifier of the patient to be updated.
      * @param patientUpdateRequest The update request containing new information for the new information about existing patient.
      * @throws ApplicationException If no patient with specified ID is found in the database.
      *                              or if PatientUpdateRequest does not pass the validation.
      */
-    public void updatePatientInfo(final Long patientId, final PatientUpdateRequest patientUpdateRequest) throws ApplicationException, IllegalAccessException {
-        final Patient patient = getPatientById(patientId);
+    @Transactional
+    public void updatePatientInfo(final Long patientId, final PatientUpdateRequest patientUpdateRequest) throws ApplicationException {
+        final Patient patient = patientRepository.findSummaryById(patientId)
+                .orElseThrow(() -> new ApplicationException("Patient with id = " + patientId + " can not be found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION));
 
         patientUpdateDataValidator.validateGivenDataForUpdate(patientUpdateRequest, patient);
-        patient.setName(patientUpdateRequest.getName());
-        patient.setLastName(patientUpdateRequest.getLastName());
-        patient.setDob(patientUpdateRequest.getDob());
-        patient.setContactInfo(patientUpdateRequest.getContactInfo());
+        patientUpdateDataValidator.applyUpdate(patientUpdateRequest, patient);
 
         patientRepository.save(patient);
+        evictPatient(patientId);
+        patientNameIndex.putAfterCommit(patientId, patient.getName(), patient.getLastName(), patient.getDob());
         log.info("Patient was updated successfully.");
     }
 
     /**
      * Method deletes a patient from database by the specified id.
+     * The patient row is locked before its assessments are read, so an assessment added concurrently either commits
+     * before and is removed from the statistics together with the patient, or waits and fails on the deleted patient.
      *
      * @param id Is the unique identifier of the patient to be deleted.
      * @throws ApplicationException If an error occurs while deleting a patient from the database.
      */
+    @Transactional(rollbackFor = ApplicationException.class)
     public void deletePatientById(final Long id) throws ApplicationException {
         try {
             log.info("Looking for patient with id = " + id + " in the DB.");
-            patientRepository.deleteById(id);
+            final Patient patient = patientRepository.findAndLockById(id)
+                    .orElseThrow(() -> new ApplicationException("Patient with id = " + id + " can not be found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION));
+            final AssessmentStatistics.PatientAssessments assessments = assessmentStatistics.loadPatientAssessments(id);
+            patientRepository.delete(patient);
+            patientRepository.flush();
+            evictPatient(id);
+            progressSearchIndex.deletePatientAfterCommit(id);
+            patientNameIndex.removeAfterCommit(id);
+            assessmentStatistics.removeAfterCommit(assessments);
 
         } catch (Exception e) {
             log.error("Failed to delete patient with id = " + id);
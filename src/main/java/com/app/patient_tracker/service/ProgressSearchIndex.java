@@ -0,0 +1,343 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.ProgressSearchHitDto;
+import com.app.patient_tracker.dto.ProgressSearchResponseDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text index over progress notes, enabled with progress-search.enabled.
+ * Notes are analyzed with the English analyzer and indexed with positions and offsets, so phrase queries work
+ * and snippets are cut from the postings without re-analyzing the note.
+ * The index lives in progress-search.directory and is committed periodically together with the highest indexed progress id,
+ * on startup only notes above that id are indexed. The index is rebuilt from the progress table when it does not match the database.
+ * New notes are added after their transaction commits, notes of removed patients are deleted with the patient.
+ */
+@Service
+@Slf4j
+public class ProgressSearchIndex implements MeterBinder {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_RESULT_WINDOW = 1000;
+
+    private static final String ID = "id";
+    private static final String PATIENT_ID = "patientId";
+    private static final String NOTES = "notes";
+    private static final String LAST_PROGRESS_ID = "lastProgressId";
+    private static final int REINDEX_BATCH_SIZE = 10000;
+    private static final FieldType NOTES_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        NOTES_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        NOTES_TYPE.freeze();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path directory;
+
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final AtomicLong lastProgressId = new AtomicLong();
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public ProgressSearchIndex(JdbcTemplate jdbcTemplate,
+                               @Value("${progress-search.enabled:false}") boolean enabled,
+                               @Value("${progress-search.directory:data/progress-index}") Path directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.directory = directory;
+    }
+
+    /**
+     * Method opens the index and brings it up to date with the progress table.
+     * Notes added since the last commit are indexed, an index that does not match the database is rebuilt.
+     *
+     * @throws IOException If the index can not be opened or written.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        writer = new IndexWriter(FSDirectory.open(directory), new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+
+        final long committedId = readCommittedProgressId();
+        final Long maxProgressId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM progress", Long.class);
+        if (committedId > maxProgressId) {
+            rebuild("it is ahead of the database");
+        } else {
+            lastProgressId.set(committedId);
+            final int indexed = indexAfter(committedId);
+            final Long notes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress WHERE notes IS NOT NULL", Long.class);
+            if (writer.getDocStats().numDocs != notes) {
+                rebuild("it holds " + writer.getDocStats().numDocs + " notes and the database " + notes);
+            } else {
+                log.info("Progress search index opened with " + notes + " notes, " + indexed + " indexed since last start.");
+            }
+        }
+        commit();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method indexes a progress note once the current transaction commits, or right away outside a transaction.
+     *
+     * @param progressId Is the unique identifier of the progress note.
+     * @param patientId  Is the unique identifier of the patient the note belongs to.
+     * @param notes      The note text.
+     */
+    public void indexAfterCommit(final Long progressId, final Long patientId, final String notes) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> index(progressId, patientId, notes));
+    }
+
+    /**
+     * Method indexes every progress note with an id above given one, reading the progress table in batches ordered by id.
+     * Notes already in the index are replaced, so overlapping ranges are safe.
+     *
+     * @param afterId Id after which notes are indexed.
+     * @return Number of indexed notes.
+     */
+    public int indexAfter(final long afterId) {
+        if (!enabled) {
+            return 0;
+        }
+        int indexed = 0;
+        long cursor = afterId;
+        while (true) {
+            final List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, patient_id, notes FROM progress WHERE id > ? AND notes IS NOT NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getString(3)}, cursor, REINDEX_BATCH_SIZE);
+            rows.forEach(row -> index((Long) row[0], (Long) row[1], (String) row[2]));
+            indexed += rows.size();
+            if (rows.size() < REINDEX_BATCH_SIZE) {
+                return indexed;
+            }
+            cursor = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    /**
+     * Method removes all notes of a patient from the index.
+     *
+     * @param patientId Is the unique identifier of the removed patient.
+     */
+    public void deletePatient(final Long patientId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(new Term(PATIENT_ID, String.valueOf(patientId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method removes all notes of a patient from the index once the current transaction commits, or right away outside a transaction.
+     *
+     * @param patientId Is the unique identifier of the removed patient.
+     */
+    public void deletePatientAfterCommit(final Long patientId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> deletePatient(patientId));
+    }
+
+    /**
+     * Method searches progress notes. Terms are matched on their English stem and all of them must match,
+     * "quoted text" is a phrase, | means or, - excludes a term and * is a prefix wildcard.
+     * Hits are ranked by BM25 and returned with a highlighted snippet.
+     * Page size defaults to {@value #DEFAULT_PAGE_SIZE} and is capped at {@value #MAX_PAGE_SIZE},
+     * results past the first {@value #MAX_RESULT_WINDOW} hits are not paged.
+     *
+     * @param text The search query.
+     * @param page Zero based page number.
+     * @param size Requested page size, null for the default.
+     * @return A page of hits, the total number of hits and the next page, null if this is the last page.
+     * @throws ApplicationException If search is disabled, the query is blank or paging is out of range.
+     */
+    public ProgressSearchResponseDto search(final String text, final int page, final Integer size) throws ApplicationException {
+        if (!enabled) {
+            throw new ApplicationException("Progress search is not enabled.", ErrorCode.PROGRESS_SEARCH_EXCEPTION);
+        }
+        final int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (text == null || text.isBlank() || page < 0 || pageSize < 1 || page >= MAX_RESULT_WINDOW / pageSize) {
+            throw new ApplicationException("Search query must not be blank and page must be within the first "
+                    + MAX_RESULT_WINDOW + " hits.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        final SimpleQueryParser parser = new SimpleQueryParser(analyzer, NOTES);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        final Query query = parser.parse(text);
+        if (query == null) {
+            return ProgressSearchResponseDto.builder().hits(List.of()).totalHits(0).build();
+        }
+
+        try {
+            searcherManager.maybeRefresh();
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final TopDocs topDocs = searcher.search(query, (page + 1) * pageSize);
+                final ScoreDoc[] pageDocs = Arrays.copyOfRange(topDocs.scoreDocs, Math.min(page * pageSize, topDocs.scoreDocs.length), topDocs.scoreDocs.length);
+                final String[] snippets = new UnifiedHighlighter(searcher, analyzer)
+                        .highlight(NOTES, query, new TopDocs(topDocs.totalHits, pageDocs), 1);
+
+                final List<ProgressSearchHitDto> hits = new ArrayList<>(pageDocs.length);
+                for (int i = 0; i < pageDocs.length; i++) {
+                    final Document document = searcher.doc(pageDocs[i].doc, Set.of(ID, PATIENT_ID));
+                    hits.add(ProgressSearchHitDto.builder()
+                            .progressId(Long.valueOf(document.get(ID)))
+                            .patientId(Long.valueOf(document.get(PATIENT_ID)))
+                            .score(pageDocs[i].score)
+                            .snippet(snippets[i])
+                            .build());
+                }
+                final boolean hasNextPage = topDocs.totalHits.value > (long) (page + 1) * pageSize
+                        && (page + 2) * pageSize <= MAX_RESULT_WINDOW;
+                return ProgressSearchResponseDto.builder()
+                        .hits(hits)
+                        .totalHits(topDocs.totalHits.value)
+                        .nextPage(hasNextPage ? page + 1 : null)
+                        .build();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.error("Progress search failed.", e);
+            throw new ApplicationException("Progress search failed.", ErrorCode.PROGRESS_SEARCH_EXCEPTION);
+        }
+    }
+
+    /**
+     * Method persists indexed notes together with the highest indexed progress id and makes them visible to searches.
+     */
+    @Scheduled(fixedDelayString = "${progress-search.commit-interval-ms:1000}")
+    public synchronized void commit() throws IOException {
+        if (writer == null || !writer.hasUncommittedChanges()) {
+            return;
+        }
+        writer.setLiveCommitData(Map.of(LAST_PROGRESS_ID, String.valueOf(lastProgressId.get())).entrySet());
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        commit();
+        searcherManager.close();
+        writer.close();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("progress.search.documents", this, index -> index.writer == null ? 0 : index.writer.getDocStats().numDocs)
+                .description("Progress notes in the full-text index")
+                .register(registry);
+    }
+
+    private void index(final Long progressId, final Long patientId, final String notes) {
+        try {
+            final Term id = new Term(ID, String.valueOf(progressId));
+            if (notes == null) {
+                writer.deleteDocuments(id);
+                return;
+            }
+            final Document document = new Document();
+            document.add(new StringField(ID, String.valueOf(progressId), Field.Store.YES));
+            document.add(new StringField(PATIENT_ID, String.valueOf(patientId), Field.Store.YES));
+            document.add(new Field(NOTES, notes, NOTES_TYPE));
+            writer.updateDocument(id, document);
+            lastProgressId.accumulateAndGet(progressId, Math::max);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long readCommittedProgressId() {
+        final Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (final Map.Entry<String, String> entry : commitData) {
+                if (LAST_PROGRESS_ID.equals(entry.getKey())) {
+                    return Long.parseLong(entry.getValue());
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void rebuild(final String reason) throws IOException {
+        log.warn("Rebuilding progress search index because " + reason + ".");
+        writer.deleteAll();
+        lastProgressId.set(0);
+        final int indexed = indexAfter(0);
+        log.info("Progress search index rebuilt with " + indexed + " notes.");
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
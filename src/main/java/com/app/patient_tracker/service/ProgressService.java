@@ -1,14 +1,19 @@
 package com.app.patient_tracker.service;
 
+import com.app.patient_tracker.dto.ProgressNoteDto;
+import com.app.patient_tracker.dto.ProgressPageResponseDto;
 import com.app.patient_tracker.dto.ProgressRequestDto;
 import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
 import com.app.patient_tracker.model.Patient;
 import com.app.patient_tracker.model.Progress;
 import com.app.patient_tracker.repository.ProgressRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -21,23 +26,40 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProgressService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int DEFAULT_PREVIEW_LENGTH = 200;
+    static final int MAX_PREVIEW_LENGTH = 2000;
+
     private final ProgressRepository progressRepository;
     private final ProgressMappingService progressMappingService;
     private final PatientService patientService;
+    private final ProgressWriteBehindService progressWriteBehindService;
+    private final ProgressSearchIndex progressSearchIndex;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Method fills out progress information for a patient.
+     * In write-behind mode the note is only journaled here and written to the database by {@link ProgressWriteBehindService},
+     * so no transaction and no database connection is held while the journal is forced to disk.
      *
      * @param patientId          Is the unique identifier of a patient for whom progress is being filled.
      * @param progressRequestDto DTO containing information to fill out progress.
      * @throws ApplicationException If patient is found with specified id.
      */
     public void fillProgress(final Long patientId, final ProgressRequestDto progressRequestDto) throws ApplicationException {
-        final Patient patient = patientService.getPatientById(patientId);
-        final Progress progress = progressMappingService.mapProgressToEntity(progressRequestDto);
-        progress.setPatient(patient);
-        patient.getPatientProgress().add(progress);
-        progressRepository.save(progress);
+        patientService.verifyPatientExists(patientId);
+        if (progressWriteBehindService.isEnabled()) {
+            progressWriteBehindService.enqueue(patientId, progressRequestDto.getNotes());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            final Progress progress = progressMappingService.mapProgressToEntity(progressRequestDto);
+            progress.setPatient(patientService.getVerifiedPatientReference(patientId));
+            final Progress savedProgress = progressRepository.save(progress);
+            patientService.evictPatient(patientId);
+            progressSearchIndex.indexAfterCommit(savedProgress.getId(), patientId, savedProgress.getNotes());
+        });
     }
 
     /**
@@ -51,4 +73,68 @@ public class ProgressService {
         final Patient patient = patientService.getPatientById(id);
         return patient.getPatientProgress();
     }
+
+    /**
+     * Method retrieves one page of progress notes of a patient, newest first, using keyset pagination on progress id.
+     * Page size defaults to {@value #DEFAULT_PAGE_SIZE} and is capped at {@value #MAX_PAGE_SIZE}.
+     * In preview mode only the first previewLength characters of each note are read from the database,
+     * defaulting to {@value #DEFAULT_PREVIEW_LENGTH} and capped at {@value #MAX_PREVIEW_LENGTH}.
+     *
+     * @param patientId     Is the unique identifier of a patient which progresses will be retrieved.
+     * @param beforeId      Cursor returned with the previous page, null for the newest notes.
+     * @param size          Requested page size, null for the default.
+     * @param preview       Whether to return note previews instead of full notes.
+     * @param previewLength Requested preview length, null for the default.
+     * @return A page of progress notes and the cursor of the next page, null if this is the last page.
+     * @throws ApplicationException If patient is not found or page size or preview length is not positive.
+     */
+    public ProgressPageResponseDto getProgressPage(final Long patientId, final Long beforeId, final Integer size,
+                                                   final boolean preview, final Integer previewLength) throws ApplicationException {
+        final int pageSize = resolveLimit(size, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE, "Page size");
+        patientService.verifyPatientExists(patientId);
+        final PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        final List<ProgressNoteDto> notes;
+        if (preview) {
+            final int length = resolveLimit(previewLength, DEFAULT_PREVIEW_LENGTH, MAX_PREVIEW_LENGTH, "Preview length");
+            notes = beforeId == null
+                    ? progressRepository.findLatestNotePreviewsPage(patientId, length, limit)
+                    : progressRepository.findNotePreviewsPage(patientId, beforeId, length, limit);
+        } else {
+            notes = beforeId == null
+                    ? progressRepository.findLatestNotesPage(patientId, limit)
+                    : progressRepository.findNotesPage(patientId, beforeId, limit);
+        }
+        final boolean hasNextPage = notes.size() > pageSize;
+        final List<ProgressNoteDto> page = hasNextPage ? notes.subList(0, pageSize) : notes;
+
+        return ProgressPageResponseDto.builder()
+                .progresses(page)
+                .nextCursor(hasNextPage ? page.get(page.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Method retrieves the full body of one progress note of a patient.
+     *
+     * @param patientId  Is the unique identifier of the patient the note belongs to.
+     * @param progressId Is the unique identifier of the progress note.
+     * @return The full progress note.
+     * @throws ApplicationException If the patient has no progress note with specified id.
+     */
+    public ProgressNoteDto getProgressNote(final Long patientId, final Long progressId) throws ApplicationException {
+        return progressRepository.findNote(patientId, progressId)
+                .orElseThrow(() -> new ApplicationException("Progress with id = " + progressId + " can not be found for patient with id = "
+                        + patientId + ".", ErrorCode.PROGRESS_NOT_FOUND_EXCEPTION));
+    }
+
+    private int resolveLimit(final Integer requested, final int defaultLimit, final int maxLimit, final String name) throws ApplicationException {
+        if (requested == null) {
+            return defaultLimit;
+        }
+        if (requested < 1) {
+            throw new ApplicationException(name + " must be positive.", ErrorCode.INVALID_DATA_EXCEPTION);
+        }
+        return Math.min(requested, maxLimit);
+    }
 }
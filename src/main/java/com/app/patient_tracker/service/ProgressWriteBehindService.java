@@ -0,0 +1,218 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.util.ProgressJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind mode for progress notes, enabled with progress-journal.enabled.
+ * A note is acknowledged once it is forced to the local {@link ProgressJournal}, a scheduled committer writes
+ * journaled notes to the progress table in multi-row inserts by patient_id, without loading the patient.
+ * The journal sequence number of the last written note is stored in the same transaction as the rows,
+ * so notes replayed from the journal after a restart are written exactly once.
+ * Notes become visible in the progress history after the next flush.
+ */
+@Service
+@Slf4j
+public class ProgressWriteBehindService implements MeterBinder {
+
+    private static final String INSERT_PREFIX = "INSERT INTO progress (notes, patient_id) VALUES ";
+    private static final String INSERT_IF_PATIENT_EXISTS =
+            "INSERT INTO progress (notes, patient_id) SELECT ?, id FROM patient WHERE id = ?";
+    private static final String SELECT_CHECKPOINT = "SELECT last_seq FROM progress_journal_checkpoint WHERE id = 1";
+    private static final String SELECT_LAST_PROGRESS_ID = "SELECT COALESCE(MAX(id), 0) FROM progress";
+    private static final String UPDATE_CHECKPOINT = "UPDATE progress_journal_checkpoint SET last_seq = ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientService patientService;
+    private final ProgressSearchIndex progressSearchIndex;
+    private final boolean enabled;
+    private final Path directory;
+    private final int batchSize;
+
+    private final AtomicLong committedNotes = new AtomicLong();
+    private final AtomicLong droppedNotes = new AtomicLong();
+    private volatile ProgressJournal journal;
+    private List<ProgressJournal.Entry> uncommitted = new ArrayList<>();
+
+    public ProgressWriteBehindService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, PatientService patientService,
+                                      ProgressSearchIndex progressSearchIndex,
+                                      @Value("${progress-journal.enabled:false}") boolean enabled,
+                                      @Value("${progress-journal.directory:data/progress-journal}") Path directory,
+                                      @Value("${progress-journal.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.patientService = patientService;
+        this.progressSearchIndex = progressSearchIndex;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method opens the journal and writes notes left over from the previous run to the database.
+     *
+     * @throws IOException If the journal can not be opened.
+     */
+    @PostConstruct
+    public void replay() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        final Long committedSeq = jdbcTemplate.queryForObject(SELECT_CHECKPOINT, Long.class);
+        journal = ProgressJournal.open(directory, committedSeq == null ? 0 : committedSeq);
+        final int replayed = journal.pendingCount();
+        if (replayed > 0) {
+            log.info("Replaying " + replayed + " progress notes from journal " + directory + ".");
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method durably enqueues a progress note. The patient is expected to be verified by the caller.
+     *
+     * @param patientId Is the unique identifier of the patient the note belongs to.
+     * @param notes     The note text.
+     * @throws ApplicationException If the note can not be written to the journal.
+     */
+    public void enqueue(final Long patientId, final String notes) throws ApplicationException {
+        try {
+            journal.append(patientId, notes);
+        } catch (IOException e) {
+            log.error("Failed to append progress note to journal.", e);
+            throw new ApplicationException("Progress could not be saved, retry later.", ErrorCode.PROGRESS_JOURNAL_EXCEPTION);
+        }
+    }
+
+    /**
+     * Method writes every journaled note to the database. Notes of a failed flush are kept and retried by the next one.
+     *
+     * @return Number of notes written.
+     */
+    @Scheduled(fixedDelayString = "${progress-journal.flush-interval-ms:200}")
+    public synchronized int flush() {
+        if (journal == null) {
+            return 0;
+        }
+        try {
+            uncommitted.addAll(journal.drain());
+            if (uncommitted.isEmpty()) {
+                journal.release();
+                return 0;
+            }
+            final List<ProgressJournal.Entry> entries = uncommitted;
+            final int written = commit(entries);
+            uncommitted = new ArrayList<>();
+            journal.release();
+            return written;
+        } catch (IOException | DataAccessException e) {
+            log.error("Failed to flush " + uncommitted.size() + " progress notes, retrying with next flush.", e);
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("progress.journal.pending", this, service -> service.journal == null ? 0 : service.journal.pendingCount())
+                .description("Progress notes acknowledged but not yet drained from the journal")
+                .register(registry);
+        FunctionCounter.builder("progress.journal.committed", committedNotes, AtomicLong::get)
+                .description("Progress notes written from the journal to the database")
+                .register(registry);
+        FunctionCounter.builder("progress.journal.dropped", droppedNotes, AtomicLong::get)
+                .description("Journaled progress notes dropped because their patient was removed")
+                .register(registry);
+    }
+
+    private int commit(final List<ProgressJournal.Entry> entries) {
+        final List<ProgressJournal.Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(ProgressJournal.Entry::getPatientId));
+        final long lastSeq = entries.get(entries.size() - 1).getSeq();
+        final Long lastProgressId = jdbcTemplate.queryForObject(SELECT_LAST_PROGRESS_ID, Long.class);
+        int written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                for (int from = 0; from < sorted.size(); from += batchSize) {
+                    insertChunk(sorted.subList(from, Math.min(from + batchSize, sorted.size())));
+                }
+                jdbcTemplate.update(UPDATE_CHECKPOINT, lastSeq);
+                return sorted.size();
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Progress notes reference removed patients, writing them one by one.");
+            written = transactionTemplate.execute(status -> insertIfPatientExists(sorted, lastSeq));
+        }
+        committedNotes.addAndGet(written);
+        droppedNotes.addAndGet(sorted.size() - written);
+        final Set<Long> patientIds = new LinkedHashSet<>();
+        sorted.forEach(entry -> patientIds.add(entry.getPatientId()));
+        patientIds.forEach(patientService::evictPatient);
+        progressSearchIndex.indexAfter(lastProgressId);
+        log.info("Flushed " + written + " progress notes of " + patientIds.size() + " patients.");
+        return written;
+    }
+
+    private void insertChunk(final List<ProgressJournal.Entry> chunk) {
+        final String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)"));
+        final Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            args[2 * i] = chunk.get(i).getNotes();
+            args[2 * i + 1] = chunk.get(i).getPatientId();
+        }
+        jdbcTemplate.update(sql, args);
+    }
+
+    private int insertIfPatientExists(final List<ProgressJournal.Entry> entries, final long lastSeq) {
+        final List<Object[]> args = new ArrayList<>(entries.size());
+        entries.forEach(entry -> args.add(new Object[]{entry.getNotes(), entry.getPatientId()}));
+        int written = 0;
+        for (final int[] counts : jdbcTemplate.batchUpdate(INSERT_IF_PATIENT_EXISTS, args, batchSize, (ps, row) -> {
+            ps.setString(1, (String) row[0]);
+            ps.setLong(2, (Long) row[1]);
+        })) {
+            for (final int count : counts) {
+                written += Math.max(count, 0);
+            }
+        }
+        jdbcTemplate.update(UPDATE_CHECKPOINT, lastSeq);
+        return written;
+    }
+}
@@ -0,0 +1,122 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ServiceOverloadedException;
+import com.app.patient_tracker.util.HibernateRequestStatistics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs write operations of the controllers either on the request thread or, when write-pipeline.enabled is set,
+ * on the bounded write pipeline executor so request threads are not held while waiting on the database.
+ * When the executor queue is full the write is rejected with 503 and a Retry-After hint.
+ * Hibernate work of a task on the executor is counted to the per request statistics of the request submitting it.
+ * Executor saturation is published as executor.* metrics tagged name=write.pipeline and write.pipeline.rejected.
+ * The executor is owned by this service and not published as a bean, so Spring MVC async handling keeps
+ * the executor auto-configured by Boot.
+ */
+@Service
+@Slf4j
+public class WritePipeline implements MeterBinder {
+
+    private static final String METRICS_NAME = "write.pipeline";
+
+    private final ThreadPoolExecutor executor;
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public WritePipeline(@Value("${write-pipeline.enabled:false}") boolean enabled,
+                         @Value("${write-pipeline.threads:8}") int threads,
+                         @Value("${write-pipeline.queue-capacity:100}") int queueCapacity,
+                         @Value("${write-pipeline.retry-after-seconds:2}") long retryAfterSeconds) {
+        this(enabled ? newExecutor(threads, queueCapacity) : null, enabled, retryAfterSeconds);
+    }
+
+    WritePipeline(final ThreadPoolExecutor executor, final boolean enabled, final long retryAfterSeconds) {
+        this.executor = executor;
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Method creates the bounded executor of the pipeline. A fixed number of threads drains a bounded queue,
+     * work that does not fit is rejected instead of queued without limit.
+     * Threads should stay below the connection pool size, every running write holds a connection.
+     */
+    static ThreadPoolExecutor newExecutor(final int threads, final int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("write-pipeline-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    public interface WriteTask<T> {
+        T run() throws ApplicationException;
+    }
+
+    /**
+     * Method submits a write task. Without the pipeline enabled the task runs right away on the calling thread
+     * and the returned future is already completed.
+     *
+     * @param task The write to run.
+     * @return Future completed with the result of the task, or exceptionally with the exception the task threw.
+     * @throws ServiceOverloadedException If the pipeline is enabled and its queue is full.
+     */
+    public <T> CompletableFuture<T> submit(final WriteTask<T> task) throws ApplicationException {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(task.run());
+        }
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(HibernateRequestStatistics.counted(() -> {
+                try {
+                    result.complete(task.run());
+                } catch (Exception e) {
+                    result.completeExceptionally(new CompletionException(e));
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Write pipeline is full, write rejected.");
+            throw new ServiceOverloadedException("Service is busy, retry later.", retryAfterSeconds);
+        }
+        return result;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        if (executor != null) {
+            new ExecutorServiceMetrics(executor, METRICS_NAME, Tags.empty()).bindTo(registry);
+        }
+        FunctionCounter.builder(METRICS_NAME + ".rejected", rejected, LongAdder::sum)
+                .description("Writes rejected because the write pipeline queue was full")
+                .register(registry);
+    }
+}
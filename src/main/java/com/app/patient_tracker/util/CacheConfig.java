@@ -1,15 +1,32 @@
 package com.app.patient_tracker.util;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class CacheConfig {
 
+    public static final String PATIENT_CACHE = "cache";
+
+    /**
+     * Bounded patient cache. Entries are evicted by size and by age, statistics are recorded
+     * so hit/miss ratio can be inspected on the native Caffeine cache.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("cache");
+    public CacheManager cacheManager(@Value("${patient-cache.maximum-size:10000}") final long maximumSize,
+                                     @Value("${patient-cache.expire-after-write:10m}") final Duration expireAfterWrite) {
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager(PATIENT_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
     }
 }
@@ -0,0 +1,70 @@
+package com.app.patient_tracker.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records per request how many SQL statements, entity loads and collection fetches Hibernate needed,
+ * tagged with the same method and uri template as http.server.requests.
+ */
+@RequiredArgsConstructor
+public class HibernateRequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTS_ATTRIBUTE = HibernateRequestMetricsInterceptor.class.getName() + ".counts";
+
+    private final HibernateRequestStatistics statistics;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        final Object counts = request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts instanceof HibernateRequestStatistics.Counts) {
+            request.removeAttribute(COUNTS_ATTRIBUTE);
+            statistics.resume((HibernateRequestStatistics.Counts) counts);
+        } else {
+            statistics.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response, final Object handler, final Exception ex) {
+        final HibernateRequestStatistics.Counts counts = statistics.stop();
+        if (counts == null) {
+            return;
+        }
+        final Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final Tags tags = Tags.of("method", request.getMethod(), "uri", uri != null ? uri.toString() : "UNKNOWN");
+        summary("hibernate.request.statements", "SQL statements prepared per request", tags).record(counts.getStatements());
+        summary("hibernate.request.entity.loads", "Entities loaded per request", tags).record(counts.getEntityLoads());
+        summary("hibernate.request.collection.fetches", "Collections initialized per request", tags).record(counts.getCollectionFetches());
+    }
+
+    /**
+     * Async results and streaming responses finish in another dispatch, stop tracking the request thread here so the
+     * counts do not leak into the next request, and keep them on the request so the next dispatch adds to them.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        final HibernateRequestStatistics.Counts counts = statistics.stop();
+        if (counts != null) {
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        }
+    }
+
+    private DistributionSummary summary(final String name, final String description, final Tags tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry.getObject());
+    }
+}
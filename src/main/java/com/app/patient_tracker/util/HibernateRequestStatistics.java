@@ -0,0 +1,120 @@
+package com.app.patient_tracker.util;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Counts the SQL statements, entity loads and collection fetches Hibernate performs on the current thread
+ * while a request is being tracked. Nothing is counted outside of {@link #start()} and {@link #stop()},
+ * so scheduled jobs and startup do not pay for it.
+ */
+public class HibernateRequestStatistics implements Integrator, StatementInspector, PostLoadEventListener, InitializeCollectionEventListener {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    public static class Counts {
+        private long statements;
+        private long entityLoads;
+        private long collectionFetches;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getCollectionFetches() {
+            return collectionFetches;
+        }
+    }
+
+    public void start() {
+        CURRENT.set(new Counts());
+    }
+
+    /**
+     * Continues counting on the current thread into counts of an earlier dispatch of the same request.
+     */
+    public void resume(final Counts counts) {
+        CURRENT.set(counts);
+    }
+
+    /**
+     * Wraps a task handed to another thread so the Hibernate work it does is counted to the request submitting it.
+     * The submitting thread does no Hibernate work while the task runs, so the counts are never updated concurrently.
+     *
+     * @return The task itself if the current thread is not tracked.
+     */
+    public static Runnable counted(final Runnable task) {
+        final Counts counts = CURRENT.get();
+        if (counts == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(counts);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Stops tracking the current thread.
+     *
+     * @return What was counted since {@link #start()}, or null if the thread was not tracked.
+     */
+    public Counts stop() {
+        final Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    @Override
+    public String inspect(final String sql) {
+        final Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(final PostLoadEvent event) {
+        final Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(final InitializeCollectionEvent event) {
+        final Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.collectionFetches++;
+        }
+    }
+
+    @Override
+    public void integrate(final Metadata metadata, final SessionFactoryImplementor sessionFactory, final SessionFactoryServiceRegistry serviceRegistry) {
+        final EventListenerRegistry listenerRegistry = serviceRegistry.getService(EventListenerRegistry.class);
+        listenerRegistry.appendListeners(EventType.POST_LOAD, this);
+        listenerRegistry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void disintegrate(final SessionFactoryImplementor sessionFactory, final SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.patient_tracker.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final HibernateRequestStatistics hibernateRequestStatistics = new HibernateRequestStatistics();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * The registry is looked up lazily, it depends on beans that need the entity manager factory this class customizes.
+     */
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Hooks the per request statistics into Hibernate as statement inspector and load listeners.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateRequestStatisticsCustomizer() {
+        return properties -> {
+            properties.put("hibernate.session_factory.statement_inspector", hibernateRequestStatistics);
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(hibernateRequestStatistics));
+        };
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new HibernateRequestMetricsInterceptor(hibernateRequestStatistics, meterRegistry))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,267 @@
+package com.app.patient_tracker.util;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of progress notes that are acknowledged before they are written to the database.
+ * Notes are appended to the current segment file and forced to disk before append returns. Concurrent writers
+ * share one force call (group commit): a writer whose note was already covered by another writer's force returns without its own.
+ * Every line is "seq, patientId, base64 notes, crc32" separated by tabs, a torn or corrupted line is skipped on replay.
+ * Not thread safe for drain and release, those are called by a single committer.
+ */
+@Slf4j
+public class ProgressJournal implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("progress-(\\d+)\\.journal");
+    private static final String NULL_NOTES = "-";
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private Path segment;
+    private long segmentNumber;
+    private long lastSeq;
+    private long writtenSeq;
+    private long syncedSeq;
+    private List<Entry> pending = new ArrayList<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    private ProgressJournal(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Method opens the journal in given directory. Notes of existing segments with a sequence number above
+     * the committed one are loaded as pending, so they are handed out by the next drain, and a new segment is started.
+     *
+     * @param directory       Directory of the journal segments, created when missing.
+     * @param committedSeq    Highest sequence number already written to the database.
+     * @return Opened journal.
+     * @throws IOException If the directory or a segment can not be read or the new segment can not be created.
+     */
+    public static ProgressJournal open(final Path directory, final long committedSeq) throws IOException {
+        Files.createDirectories(directory);
+        final ProgressJournal journal = new ProgressJournal(directory);
+        journal.lastSeq = committedSeq;
+        for (final Path existing : listSegments(directory)) {
+            journal.segmentNumber = Math.max(journal.segmentNumber, segmentNumber(existing));
+            for (final Entry entry : readSegment(existing)) {
+                journal.lastSeq = Math.max(journal.lastSeq, entry.getSeq());
+                if (entry.getSeq() > committedSeq) {
+                    journal.pending.add(entry);
+                }
+            }
+            journal.sealedSegments.add(existing);
+        }
+        journal.writtenSeq = journal.lastSeq;
+        journal.syncedSeq = journal.lastSeq;
+        journal.openNextSegment();
+        return journal;
+    }
+
+    /**
+     * Method appends a note to the journal and returns once it is forced to disk.
+     *
+     * @param patientId Is the unique identifier of the patient the note belongs to.
+     * @param notes     The note text.
+     * @return Sequence number of the appended note.
+     * @throws IOException If the note can not be written or forced to disk.
+     */
+    public long append(final Long patientId, final String notes) throws IOException {
+        final long seq;
+        synchronized (appendLock) {
+            seq = lastSeq + 1;
+            final Entry entry = new Entry(seq, patientId, notes);
+            final ByteBuffer line = ByteBuffer.wrap(encode(entry));
+            final long position = channel.position();
+            try {
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+            } catch (IOException e) {
+                channel.truncate(position);
+                throw e;
+            }
+            lastSeq = seq;
+            writtenSeq = seq;
+            pending.add(entry);
+        }
+        sync(seq);
+        return seq;
+    }
+
+    /**
+     * Method seals the current segment and hands out all pending notes in append order.
+     * Sealed segments stay on disk until {@link #release()} is called after the notes are committed.
+     *
+     * @return Notes appended since the last drain.
+     * @throws IOException If the current segment can not be forced or the next one can not be created.
+     */
+    public List<Entry> drain() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (pending.isEmpty()) {
+                    return List.of();
+                }
+                channel.force(false);
+                syncedSeq = writtenSeq;
+                channel.close();
+                sealedSegments.add(segment);
+                openNextSegment();
+                final List<Entry> drained = pending;
+                pending = new ArrayList<>();
+                return drained;
+            }
+        }
+    }
+
+    /**
+     * Method deletes sealed segments. Called once every drained note is committed to the database.
+     *
+     * @throws IOException If a segment can not be deleted.
+     */
+    public void release() throws IOException {
+        for (final Path sealed : sealedSegments) {
+            Files.deleteIfExists(sealed);
+        }
+        sealedSegments.clear();
+    }
+
+    public int pendingCount() {
+        synchronized (appendLock) {
+            return pending.size();
+        }
+    }
+
+    public long lastSeq() {
+        synchronized (appendLock) {
+            return lastSeq;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void sync(final long seq) throws IOException {
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            final FileChannel current;
+            final long target;
+            synchronized (appendLock) {
+                current = channel;
+                target = writtenSeq;
+            }
+            current.force(false);
+            syncedSeq = target;
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = directory.resolve(String.format("progress-%019d.journal", segmentNumber));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static List<Path> listSegments(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumber(final Path segment) {
+        final Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static List<Entry> readSegment(final Path segment) throws IOException {
+        final String content = Files.readString(segment, StandardCharsets.US_ASCII);
+        final List<Entry> entries = new ArrayList<>();
+        int start = 0;
+        int end = content.indexOf('\n');
+        while (end >= 0) {
+            final Entry entry = decode(content.substring(start, end));
+            if (entry != null) {
+                entries.add(entry);
+            } else {
+                log.warn("Skipped corrupted line in progress journal " + segment + ".");
+            }
+            start = end + 1;
+            end = content.indexOf('\n', start);
+        }
+        if (start < content.length()) {
+            log.warn("Skipped incomplete last line in progress journal " + segment + ".");
+        }
+        return entries;
+    }
+
+    static byte[] encode(final Entry entry) {
+        final String notes = entry.getNotes() == null
+                ? NULL_NOTES
+                : Base64.getEncoder().encodeToString(entry.getNotes().getBytes(StandardCharsets.UTF_8));
+        final String body = entry.getSeq() + "\t" + entry.getPatientId() + "\t" + notes;
+        return (body + "\t" + Long.toHexString(crc(body)) + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static Entry decode(final String line) {
+        final int crcStart = line.lastIndexOf('\t');
+        final String[] fields = crcStart < 0 ? new String[0] : line.substring(0, crcStart).split("\t", -1);
+        if (fields.length != 3) {
+            return null;
+        }
+        try {
+            if (Long.parseLong(line.substring(crcStart + 1), 16) != crc(line.substring(0, crcStart))) {
+                return null;
+            }
+            final String notes = NULL_NOTES.equals(fields[2])
+                    ? null
+                    : new String(Base64.getDecoder().decode(fields[2]), StandardCharsets.UTF_8);
+            return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), notes);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long crc(final String body) {
+        final CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    }
+
+    @Value
+    public static class Entry {
+        long seq;
+        Long patientId;
+        String notes;
+    }
+}
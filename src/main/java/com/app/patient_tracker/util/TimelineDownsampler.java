@@ -0,0 +1,118 @@
+package com.app.patient_tracker.util;
+
+import com.app.patient_tracker.dto.AssessmentTimelinePointDto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass downsampler of a time series into at most a fixed number of points.
+ * Samples are kept as they are until there are more of them than points, from then on the range is split into
+ * equally long time buckets and every bucket keeps count, mean time, mean, min and max of its samples.
+ * Memory use depends only on the number of points, not on the number of samples.
+ */
+public class TimelineDownsampler {
+
+    private final int maxPoints;
+    private final long from;
+    private final long span;
+
+    private final long[] times;
+    private final int[] values;
+    private int rawCount;
+
+    private long[] counts;
+    private long[] timeSums;
+    private long[] valueSums;
+    private int[] mins;
+    private int[] maxs;
+    private long samples;
+
+    /**
+     * @param maxPoints Maximum number of points of the result, at least one.
+     * @param from      Start of the range, inclusive.
+     * @param to        End of the range, exclusive.
+     */
+    public TimelineDownsampler(final int maxPoints, final LocalDateTime from, final LocalDateTime to) {
+        this.maxPoints = maxPoints;
+        this.from = toMillis(from);
+        this.span = Math.max(1, toMillis(to) - this.from);
+        this.times = new long[maxPoints];
+        this.values = new int[maxPoints];
+    }
+
+    public void add(final LocalDateTime time, final int value) {
+        final long offset = toMillis(time) - from;
+        samples++;
+        if (counts == null) {
+            if (rawCount < maxPoints) {
+                times[rawCount] = offset;
+                values[rawCount] = value;
+                rawCount++;
+                return;
+            }
+            counts = new long[maxPoints];
+            timeSums = new long[maxPoints];
+            valueSums = new long[maxPoints];
+            mins = new int[maxPoints];
+            maxs = new int[maxPoints];
+            for (int i = 0; i < rawCount; i++) {
+                addToBucket(times[i], values[i]);
+            }
+        }
+        addToBucket(offset, value);
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public boolean isDownsampled() {
+        return counts != null;
+    }
+
+    /**
+     * Method returns the points in time order, the raw samples when there were no more of them than points.
+     */
+    public List<AssessmentTimelinePointDto> getPoints() {
+        final List<AssessmentTimelinePointDto> points = new ArrayList<>();
+        if (counts == null) {
+            for (int i = 0; i < rawCount; i++) {
+                points.add(new AssessmentTimelinePointDto(toTime(times[i]), values[i], values[i], values[i], 1));
+            }
+            return points;
+        }
+        for (int bucket = 0; bucket < maxPoints; bucket++) {
+            if (counts[bucket] > 0) {
+                points.add(new AssessmentTimelinePointDto(toTime(timeSums[bucket] / counts[bucket]),
+                        (double) valueSums[bucket] / counts[bucket], mins[bucket], maxs[bucket], counts[bucket]));
+            }
+        }
+        return points;
+    }
+
+    private void addToBucket(final long offset, final int value) {
+        final int bucket = (int) Math.min(maxPoints - 1, Math.max(0, offset * maxPoints / span));
+        if (counts[bucket] == 0) {
+            mins[bucket] = value;
+            maxs[bucket] = value;
+        } else {
+            mins[bucket] = Math.min(mins[bucket], value);
+            maxs[bucket] = Math.max(maxs[bucket], value);
+        }
+        counts[bucket]++;
+        timeSums[bucket] += offset;
+        valueSums[bucket] += value;
+    }
+
+    private LocalDateTime toTime(final long offset) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(from + offset), ZoneOffset.UTC);
+    }
+
+    private static long toMillis(final LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -1,17 +1,24 @@
 package com.app.patient_tracker.validator;
 
 import com.app.patient_tracker.dto.AttendanceRequestDto;
+import com.app.patient_tracker.dto.AttendanceSeriesRequestDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceRequestDto;
 import com.app.patient_tracker.exception.ApplicationException;
 import com.app.patient_tracker.exception.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Service
 @Slf4j
 public class AttendanceRequestValidator {
 
+    public static final int MAX_SERIES_OCCURRENCES = 104;
+    public static final int MAX_BULK_MARK_SIZE = 500;
+
     public void validateAttendanceRequest(final AttendanceRequestDto attendanceRequestDto) throws ApplicationException {
         if (attendanceRequestDto == null) {
             log.error("Attendance request was empty.");
@@ -25,4 +32,45 @@ public class AttendanceRequestValidator {
             throw new ApplicationException("Wrong attendance date.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
         }
     }
+
+    public void validateAttendanceSeriesRequest(final AttendanceSeriesRequestDto seriesRequestDto) throws ApplicationException {
+        if (seriesRequestDto == null || seriesRequestDto.getStartDate() == null) {
+            log.error("Attendance series request was empty.");
+            throw new ApplicationException("Attendance series request is empty.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        if (seriesRequestDto.getIntervalDays() == null || seriesRequestDto.getIntervalDays() < 1) {
+            throw new ApplicationException("Series interval must be at least one day.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        if ((seriesRequestDto.getCount() == null) == (seriesRequestDto.getUntil() == null)) {
+            throw new ApplicationException("Series needs either count or until.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        if (seriesRequestDto.getUntil() != null && seriesRequestDto.getUntil().isBefore(seriesRequestDto.getStartDate())) {
+            throw new ApplicationException("Series until date is before start date.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        final long occurrences = seriesRequestDto.getCount() != null
+                ? seriesRequestDto.getCount()
+                : ChronoUnit.DAYS.between(seriesRequestDto.getStartDate(), seriesRequestDto.getUntil()) / seriesRequestDto.getIntervalDays() + 1;
+        if (occurrences < 1 || occurrences > MAX_SERIES_OCCURRENCES) {
+            throw new ApplicationException("Series must have between 1 and " + MAX_SERIES_OCCURRENCES + " appointments.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+    }
+
+    public void validateBulkMarkRequest(final BulkMarkAttendanceRequestDto bulkMarkRequestDto) throws ApplicationException {
+        if (bulkMarkRequestDto == null) {
+            log.error("Bulk mark attendance request was empty.");
+            throw new ApplicationException("Bulk mark attendance request is empty.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        final boolean byIds = bulkMarkRequestDto.getAttendanceIds() != null;
+        final boolean byRoster = bulkMarkRequestDto.getDate() != null || bulkMarkRequestDto.getPatientIds() != null;
+        if (byIds == byRoster) {
+            throw new ApplicationException("Request needs either attendanceIds or date with patientIds.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        if (byRoster && (bulkMarkRequestDto.getDate() == null || bulkMarkRequestDto.getPatientIds() == null)) {
+            throw new ApplicationException("Roster request needs both date and patientIds.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+        final List<Long> ids = byIds ? bulkMarkRequestDto.getAttendanceIds() : bulkMarkRequestDto.getPatientIds();
+        if (ids.isEmpty() || ids.size() > MAX_BULK_MARK_SIZE || ids.contains(null)) {
+            throw new ApplicationException("Request must contain between 1 and " + MAX_BULK_MARK_SIZE + " ids.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION);
+        }
+    }
 }
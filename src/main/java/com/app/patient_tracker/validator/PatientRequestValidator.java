@@ -22,6 +22,7 @@ public class PatientRequestValidator {
         checkMandatoryField(patientRequestDto.getName(), "FirstName");
         checkMandatoryField(patientRequestDto.getLastName(), "LastName");
         checkMandatoryFieldDob(patientRequestDto.getDob());
+        checkMandatoryField(patientRequestDto.getContactInfo(), "ContactInfo");
     }
 
     private void checkMandatoryField(Object field, String fieldName) throws ApplicationException {
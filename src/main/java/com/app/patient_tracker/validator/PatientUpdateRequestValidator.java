@@ -7,35 +7,55 @@ import com.app.patient_tracker.model.Patient;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.List;
 
 @Service
 @Slf4j
 public class PatientUpdateRequestValidator {
 
-    public void validateGivenDataForUpdate(final PatientUpdateRequest patientUpdateRequest, final Patient patient) throws ApplicationException, IllegalAccessException {
-        log.info("Validating given data for update.");
-        final Field[] fieldsToValidate = patientUpdateRequest.getClass().getDeclaredFields();
-        for (Field field : fieldsToValidate) {
-                Object updatedValue = field.get(patientUpdateRequest);
-                Object originalValue = field.get(patient);
-                if (!isFieldValid(updatedValue, originalValue)) {
-                    log.error(field.getName() + " was empty or the same as the old one.");
-                    throw new ApplicationException(field.getName() + " is not correct or equals to the old one.", ErrorCode.INVALID_DATA_EXCEPTION);
-                }
-        }
-    }
+    static final UpdatePlan<PatientUpdateRequest, Patient> PATIENT_UPDATE_PLAN = UpdatePlan.<PatientUpdateRequest, Patient>builder()
+            .field("name", PatientUpdateRequest::getName, Patient::getName, Patient::setName, PatientUpdateRequestValidator::isNotBlank)
+            .field("lastName", PatientUpdateRequest::getLastName, Patient::getLastName, Patient::setLastName, PatientUpdateRequestValidator::isNotBlank)
+            .field("dob", PatientUpdateRequest::getDob, Patient::getDob, Patient::setDob, PatientUpdateRequestValidator::isNotInFuture)
+            .field("contactInfo", PatientUpdateRequest::getContactInfo, Patient::getContactInfo, Patient::setContactInfo, PatientUpdateRequestValidator::isNotBlank)
+            .build();
 
-    private boolean isFieldValid(Object updatedValue, Object originalValue) {
-        if (updatedValue == null) {
-            return false;
+    /**
+     * Method validates a partial update of the patient. Fields left null are not updated, every given field
+     * must be valid and differ from the current value. All violations are reported together.
+     *
+     * @param patientUpdateRequest The update request.
+     * @param patient              The patient to be updated.
+     * @throws ApplicationException If the request is empty or any given field is not valid or equals the current value.
+     */
+    public void validateGivenDataForUpdate(final PatientUpdateRequest patientUpdateRequest, final Patient patient) throws ApplicationException {
+        if (patientUpdateRequest == null) {
+            throw new ApplicationException("Update request is empty.", ErrorCode.INVALID_DATA_EXCEPTION);
         }
-        if (updatedValue instanceof String) {
-            return !((String) updatedValue).isEmpty() && !updatedValue.equals(originalValue);
-        } else if (updatedValue instanceof LocalDate) {
-            return !updatedValue.equals(originalValue);
+        final List<String> violations = PATIENT_UPDATE_PLAN.findViolations(patientUpdateRequest, patient);
+        if (!violations.isEmpty()) {
+            log.error("Patient update rejected for fields {}.", violations);
+            throw new ApplicationException(String.join(", ", violations) + " is not correct or equals to the old one.", ErrorCode.INVALID_DATA_EXCEPTION);
         }
-        return false;
+    }
+
+    /**
+     * Method copies the fields given in the update request to the patient. Fields left null are not changed.
+     * The request is expected to have passed {@link #validateGivenDataForUpdate(PatientUpdateRequest, Patient)}.
+     *
+     * @param patientUpdateRequest The validated update request.
+     * @param patient              The patient to be updated.
+     */
+    public void applyUpdate(final PatientUpdateRequest patientUpdateRequest, final Patient patient) {
+        PATIENT_UPDATE_PLAN.apply(patientUpdateRequest, patient);
+    }
+
+    private static boolean isNotBlank(final String value) {
+        return !value.isBlank();
+    }
+
+    private static boolean isNotInFuture(final LocalDate value) {
+        return !value.isAfter(LocalDate.now());
     }
 }
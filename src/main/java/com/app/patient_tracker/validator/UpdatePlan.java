@@ -0,0 +1,117 @@
+package com.app.patient_tracker.validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Precomputed mapping from the fields of an update request to the fields of an entity, built once per request type.
+ * A null request field means the entity field stays unchanged, so the plan supports partial (PATCH) updates.
+ *
+ * @param <R> Type of the update request.
+ * @param <E> Type of the entity being updated.
+ */
+public final class UpdatePlan<R, E> {
+
+    private final List<Field<R, E, ?>> fields;
+
+    private UpdatePlan(final List<Field<R, E, ?>> fields) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+    }
+
+    public static <R, E> Builder<R, E> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Method checks every given field of the request against the entity in one pass.
+     * A field is a violation when its value is not valid or equals the current value of the entity.
+     *
+     * @return Names of the violating fields, empty if the request can be applied. A request without any field set
+     * is reported as a single violation.
+     */
+    public List<String> findViolations(final R request, final E entity) {
+        List<String> violations = null;
+        boolean anyFieldGiven = false;
+        for (Field<R, E, ?> field : fields) {
+            final int result = field.check(request, entity);
+            if (result == Field.NOT_GIVEN) {
+                continue;
+            }
+            anyFieldGiven = true;
+            if (result == Field.INVALID) {
+                if (violations == null) {
+                    violations = new ArrayList<>(fields.size());
+                }
+                violations.add(field.name);
+            }
+        }
+        if (!anyFieldGiven) {
+            return List.of("request");
+        }
+        return violations == null ? List.of() : violations;
+    }
+
+    /**
+     * Method copies every field given in the request to the entity, fields left null are not touched.
+     */
+    public void apply(final R request, final E entity) {
+        for (Field<R, E, ?> field : fields) {
+            field.apply(request, entity);
+        }
+    }
+
+    public static final class Builder<R, E> {
+        private final List<Field<R, E, ?>> fields = new ArrayList<>();
+
+        public <V> Builder<R, E> field(final String name, final Function<R, V> requestGetter, final Function<E, V> entityGetter,
+                                       final BiConsumer<E, V> entitySetter, final Predicate<V> valueCheck) {
+            fields.add(new Field<>(name, requestGetter, entityGetter, entitySetter, valueCheck));
+            return this;
+        }
+
+        public UpdatePlan<R, E> build() {
+            return new UpdatePlan<>(fields);
+        }
+    }
+
+    private static final class Field<R, E, V> {
+        private static final int NOT_GIVEN = 0;
+        private static final int VALID = 1;
+        private static final int INVALID = 2;
+
+        private final String name;
+        private final Function<R, V> requestGetter;
+        private final Function<E, V> entityGetter;
+        private final BiConsumer<E, V> entitySetter;
+        private final Predicate<V> valueCheck;
+
+        private Field(final String name, final Function<R, V> requestGetter, final Function<E, V> entityGetter,
+                      final BiConsumer<E, V> entitySetter, final Predicate<V> valueCheck) {
+            this.name = name;
+            this.requestGetter = requestGetter;
+            this.entityGetter = entityGetter;
+            this.entitySetter = entitySetter;
+            this.valueCheck = valueCheck;
+        }
+
+        private int check(final R request, final E entity) {
+            final V updatedValue = requestGetter.apply(request);
+            if (updatedValue == null) {
+                return NOT_GIVEN;
+            }
+            return valueCheck.test(updatedValue) && !Objects.equals(updatedValue, entityGetter.apply(entity)) ? VALID : INVALID;
+        }
+
+        private void apply(final R request, final E entity) {
+            final V updatedValue = requestGetter.apply(request);
+            if (updatedValue != null) {
+                entitySetter.accept(entity, updatedValue);
+            }
+        }
+    }
+}
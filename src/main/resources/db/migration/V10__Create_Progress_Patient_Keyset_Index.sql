@@ -0,0 +1,3 @@
+-- Paged progress history walks one patient's notes by id, newest first.
+DROP INDEX IF EXISTS idx_progress_patient_id;
+CREATE INDEX IF NOT EXISTS idx_progress_patient_id_id ON progress (patient_id, id);
@@ -0,0 +1,4 @@
+-- Assessments are charted per patient over time. Existing rows get the migration time as creation time.
+ALTER TABLE assessment ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE assessment ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_assessment_patient_id_created_at ON assessment (patient_id, created_at);
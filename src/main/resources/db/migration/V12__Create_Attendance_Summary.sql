@@ -0,0 +1,29 @@
+-- Attendance counters per patient, kept in sync by the attendance write paths.
+-- missed counts unattended appointments dated before missed_through, the nightly pass moves missed_through to today.
+CREATE TABLE IF NOT EXISTS attendance_summary (
+    patient_id BIGINT PRIMARY KEY REFERENCES patient(id) ON DELETE CASCADE,
+    scheduled INTEGER DEFAULT 0 NOT NULL,
+    attended INTEGER DEFAULT 0 NOT NULL,
+    missed INTEGER DEFAULT 0 NOT NULL,
+    last_attended DATE,
+    missed_through DATE NOT NULL,
+    no_show_rate DOUBLE PRECISION DEFAULT 0 NOT NULL
+);
+
+INSERT INTO attendance_summary (patient_id, scheduled, attended, missed, last_attended, missed_through)
+SELECT p.id,
+       COUNT(a.id),
+       COUNT(CASE WHEN a.didAttend = TRUE THEN 1 END),
+       COUNT(CASE WHEN a.didAttend = FALSE AND a.dateOfAttendance < CURRENT_DATE THEN 1 END),
+       MAX(CASE WHEN a.didAttend = TRUE THEN a.dateOfAttendance END),
+       CURRENT_DATE
+FROM patient p
+LEFT JOIN attendance a ON a.patient_id = p.id
+GROUP BY p.id;
+
+UPDATE attendance_summary
+SET no_show_rate = CASE WHEN attended + missed = 0 THEN 0 ELSE CAST(missed AS DOUBLE PRECISION) / (attended + missed) END;
+
+CREATE INDEX IF NOT EXISTS idx_attendance_summary_no_show_rate ON attendance_summary (no_show_rate DESC, patient_id);
+CREATE INDEX IF NOT EXISTS idx_attendance_summary_missed ON attendance_summary (missed DESC, patient_id);
+CREATE INDEX IF NOT EXISTS idx_attendance_summary_last_attended ON attendance_summary (last_attended, patient_id);
@@ -0,0 +1,4 @@
+-- Patients who never attended rank first when sorting by last attended date, the index is ordered the same way
+-- so the sort is read from it on databases that place NULLs last by default.
+DROP INDEX IF EXISTS idx_attendance_summary_last_attended;
+CREATE INDEX IF NOT EXISTS idx_attendance_summary_last_attended ON attendance_summary (last_attended NULLS FIRST, patient_id);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_attendance_schedule ON attendance (didAttend, dateOfAttendance);
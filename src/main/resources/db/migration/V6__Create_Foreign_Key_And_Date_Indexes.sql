@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_assessment_patient_id ON assessment (patient_id);
+CREATE INDEX IF NOT EXISTS idx_attendance_patient_schedule ON attendance (patient_id, didAttend, dateOfAttendance);
+CREATE INDEX IF NOT EXISTS idx_progress_patient_id ON progress (patient_id);
+CREATE INDEX IF NOT EXISTS idx_attendance_date ON attendance (dateOfAttendance);
+CREATE INDEX IF NOT EXISTS idx_patient_next_appointment ON patient (nextAppointment);
@@ -0,0 +1,3 @@
+CREATE SEQUENCE IF NOT EXISTS patient_seq START WITH 1 INCREMENT BY 50;
+-- Pooled ids: the sequence value is the upper bound of a block of 50, so start past the existing ids.
+ALTER SEQUENCE patient_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 51 FROM patient);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS progress_journal_checkpoint (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+-- Highest journal sequence number already written to the progress table, updated in the same transaction as the rows.
+INSERT INTO progress_journal_checkpoint (id, last_seq) VALUES (1, 0);
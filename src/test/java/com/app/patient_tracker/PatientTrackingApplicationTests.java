@@ -1,13 +1,33 @@
 package com.app.patient_tracker;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @SpringBootTest
 class PatientTrackingApplicationTests {
 
+	@Autowired
+	private ApplicationContext applicationContext;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void asyncRequestsUseBootTaskExecutor() {
+		Assertions.assertTrue(applicationContext.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+				instanceof ThreadPoolTaskExecutor);
+	}
+
+	@Test
+	void scheduledTasksDoNotShareOneThread() {
+		Assertions.assertTrue(applicationContext.getBean(ThreadPoolTaskScheduler.class).getPoolSize() > 1);
+	}
+
 }
@@ -0,0 +1,112 @@
+package com.app.patient_tracker.controller;
+
+import com.app.patient_tracker.model.Assessment;
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
+import com.app.patient_tracker.repository.PatientRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Asserts how many SQL statements the hot read endpoints prepare for a whole request, including response serialization,
+ * so a lazy collection touched by the controller or by Jackson shows up as well.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1", "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+class EndpointStatementCountTest {
+
+    private static final int PATIENTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Long> patientIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        if (patientRepository.count() == 0) {
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient patient = Patient.builder().name("Name" + i).lastName("Lastname" + i)
+                        .contactInfo("contact" + i).dob(LocalDate.of(1980, 1, 1)).build();
+                List<Attendance> attendances = new ArrayList<>();
+                List<Assessment> assessments = new ArrayList<>();
+                List<Progress> progress = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    attendances.add(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.now().plusDays(j + 1)).patient(patient).build());
+                    assessments.add(Assessment.builder().title("Title" + j).points(j).patient(patient).build());
+                    progress.add(Progress.builder().notes("Notes" + j).patient(patient).build());
+                }
+                patient.setAttendances(attendances);
+                patient.setAssessments(assessments);
+                patient.setPatientProgress(progress);
+                patientRepository.save(patient);
+            }
+        }
+        patientRepository.findAll().forEach(patient -> patientIds.add(patient.getId()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void patientByIdLoadsFullRecordOnceThenServesCache() throws Exception {
+        final Long id = patientIds.get(0);
+
+        mockMvc.perform(get("/api/patients/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attendances.length()").value(3))
+                .andExpect(jsonPath("$.assessments.length()").value(3))
+                .andExpect(jsonPath("$.patientProgress.length()").value(3));
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/patients/" + id)).andExpect(status().isOk());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patientPageLoadsEachCollectionInOneStatement() throws Exception {
+        mockMvc.perform(get("/api/patients/all").param("size", String.valueOf(PATIENTS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients.length()").value(PATIENTS))
+                .andExpect(jsonPath("$.patients[19].patientProgress.length()").value(3));
+        Assertions.assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patientSummaryPageIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/patients/all").param("size", String.valueOf(PATIENTS)).param("summary", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients.length()").value(PATIENTS));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void scheduleIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/attendance/schedule"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PATIENTS * 3));
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.model.Assessment;
+import com.app.patient_tracker.model.Patient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@DataJpaTest
+class AssessmentRepositoryTest {
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long jimId;
+
+    @BeforeEach
+    void setUp() {
+        Patient jim = entityManager.persist(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build());
+        Patient dwight = entityManager.persist(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build());
+        jimId = jim.getId();
+
+        assess(jim, "Berg Balance", 30, LocalDateTime.of(2024, 3, 1, 10, 0));
+        assess(jim, "Berg Balance", 20, LocalDateTime.of(2024, 1, 1, 10, 0));
+        assess(jim, "Barthel Index", 70, LocalDateTime.of(2024, 2, 1, 10, 0));
+        assess(jim, "Berg Balance", 40, LocalDateTime.of(2024, 5, 1, 10, 0));
+        assess(dwight, "Berg Balance", 50, LocalDateTime.of(2024, 2, 1, 10, 0));
+        entityManager.clear();
+    }
+
+    @Test
+    void assessPatient_setsCreationTime() {
+        Assessment assessment = entityManager.persistAndFlush(Assessment.builder().title("Berg Balance").points(10).build());
+
+        Assertions.assertNotNull(assessment.getCreatedAt());
+    }
+
+    @Test
+    void streamTimeline_returnsPatientScoresInRangeOldestFirst() {
+        Assertions.assertEquals(List.of(20, 70, 30), points(null));
+    }
+
+    @Test
+    void streamTimeline_filtersByTitle() {
+        Assertions.assertEquals(List.of(20, 30), points("Berg Balance"));
+    }
+
+    private List<Integer> points(final String title) {
+        try (Stream<Object[]> scores = assessmentRepository.streamTimeline(jimId, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 4, 1, 0, 0), title)) {
+            return scores.map(score -> (Integer) score[1]).collect(Collectors.toList());
+        }
+    }
+
+    private void assess(final Patient patient, final String title, final int points, final LocalDateTime createdAt) {
+        Assessment assessment = entityManager.persistAndFlush(Assessment.builder().title(title).points(points).patient(patient).build());
+        entityManager.getEntityManager().createNativeQuery("UPDATE assessment SET created_at = ? WHERE id = ?")
+                .setParameter(1, createdAt)
+                .setParameter(2, assessment.getId())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,102 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.dto.ScheduleDayDto;
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AttendanceRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2043, 4, 1);
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long patientId;
+
+    @BeforeEach
+    void setUp() {
+        Patient patient = entityManager.persist(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build());
+        patientId = patient.getId();
+
+        entityManager.persist(Attendance.builder().didAttend(true).dateOfAttendance(TODAY.minusDays(3)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(TODAY.minusDays(1)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(TODAY).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(TODAY.plusDays(2)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(TODAY.plusDays(1)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(TODAY.plusDays(2)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(true).dateOfAttendance(TODAY.plusDays(2)).patient(patient).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findUpcomingAppointmentDates() {
+        List<LocalDate> dates = attendanceRepository.findUpcomingAppointmentDates(TODAY);
+
+        Assertions.assertEquals(Arrays.asList(TODAY.plusDays(1), TODAY.plusDays(2), TODAY.plusDays(2)), dates);
+    }
+
+    @Test
+    void countAppointmentsPerDay() {
+        List<ScheduleDayDto> days = attendanceRepository.countAppointmentsPerDay(TODAY, TODAY.plusDays(7));
+
+        Assertions.assertEquals(Arrays.asList(
+                new ScheduleDayDto(TODAY, 1L),
+                new ScheduleDayDto(TODAY.plusDays(1), 1L),
+                new ScheduleDayDto(TODAY.plusDays(2), 2L)), days);
+    }
+
+    @Test
+    void saveAllSeriesInOneBatch() {
+        Patient patient = entityManager.getEntityManager().getReference(Patient.class, patientId);
+        List<Attendance> series = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            series.add(Attendance.builder().didAttend(false).dateOfAttendance(TODAY.plusWeeks(i)).patient(patient).build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        attendanceRepository.saveAll(series);
+        entityManager.flush();
+
+        Assertions.assertEquals(12, statistics.getEntityInsertCount());
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected one batched insert and at most one sequence call but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void markAttendedByIdsAndRoster() {
+        Long otherPatientId = entityManager.persistAndGetId(Patient.builder().name("Pam").lastName("Beesley")
+                .contactInfo("lovely.pam@mail.com").dob(LocalDate.of(1982, 9, 30)).build(), Long.class);
+        List<Long> rosterIds = attendanceRepository.findIdsByDateAndPatientIds(TODAY.plusDays(2), Arrays.asList(patientId, otherPatientId));
+        Assertions.assertEquals(3, rosterIds.size());
+        Assertions.assertEquals(List.of(patientId), attendanceRepository.findPatientIdsByAttendanceIds(rosterIds));
+
+        List<Long> existingIds = attendanceRepository.findExistingIds(Arrays.asList(rosterIds.get(0), -1L));
+        Assertions.assertEquals(List.of(rosterIds.get(0)), existingIds);
+
+        Assertions.assertEquals(2, attendanceRepository.markAttended(rosterIds), "One roster attendance was already attended");
+        Assertions.assertEquals(List.of(TODAY.plusDays(1)), attendanceRepository.findUpcomingAppointmentDates(TODAY));
+        Assertions.assertEquals(0, attendanceRepository.markAttended(rosterIds), "Attended rows must not be marked again");
+    }
+}
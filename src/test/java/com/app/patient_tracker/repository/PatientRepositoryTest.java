@@ -0,0 +1,150 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.dto.PatientPageRequest;
+import com.app.patient_tracker.dto.PatientSummaryDto;
+import com.app.patient_tracker.model.Assessment;
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PatientRepositoryTest {
+
+    private static final int PATIENTS = 20;
+
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long firstPatientId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = entityManager.persist(Patient.builder().name("Name" + i).lastName("Lastname" + i)
+                    .contactInfo("contact" + i).dob(LocalDate.of(1980, 1, 1)).build());
+            for (int j = 0; j < 3; j++) {
+                entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.now().plusDays(j + 1)).patient(patient).build());
+                entityManager.persist(Assessment.builder().title("Title" + j).points(j).patient(patient).build());
+                entityManager.persist(Progress.builder().notes("Notes" + j).patient(patient).build());
+            }
+            if (firstPatientId == null) {
+                firstPatientId = patient.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryPlanLoadsNoCollections() {
+        Patient patient = patientRepository.findSummaryById(firstPatientId).orElseThrow();
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getCollectionFetchCount());
+        Assertions.assertEquals("Name0", patient.getName());
+    }
+
+    @Test
+    void withSchedulePlanLoadsAttendancesInOneStatement() {
+        Patient patient = patientRepository.findWithScheduleById(firstPatientId).orElseThrow();
+
+        Assertions.assertEquals(3, patient.getAttendances().size());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void fullRecordPlanUsesOneStatementPerCollection() {
+        Patient patient = patientRepository.findWithScheduleById(firstPatientId).orElseThrow();
+
+        Assertions.assertEquals(3, patient.getAttendances().size());
+        Assertions.assertEquals(3, patient.getAssessments().size());
+        Assertions.assertEquals(3, patient.getPatientProgress().size());
+        Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageOfFullRecordsIsBatchFetched() {
+        List<Patient> patients = patientRepository.findPatientsPage(PatientPageRequest.builder().build(), PATIENTS);
+
+        for (Patient patient : patients) {
+            Assertions.assertEquals(3, patient.getAttendances().size());
+            Assertions.assertEquals(3, patient.getAssessments().size());
+            Assertions.assertEquals(3, patient.getPatientProgress().size());
+        }
+        Assertions.assertEquals(PATIENTS, patients.size());
+        Assertions.assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void recomputeNextAppointmentPicksEarliestUnattendedFutureDate() {
+        Patient patient = entityManager.persist(Patient.builder().name("Pam").lastName("Beesley")
+                .contactInfo("lovely.pam@mail.com").dob(LocalDate.of(1982, 9, 30)).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.of(2043, 5, 1)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.of(2043, 4, 1)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(true).dateOfAttendance(LocalDate.of(2043, 3, 1)).patient(patient).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.of(2043, 2, 1)).patient(patient).build());
+        entityManager.flush();
+        statistics.clear();
+
+        patientRepository.recomputeNextAppointment(patient.getId(), LocalDate.of(2043, 2, 1));
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        Assertions.assertEquals(LocalDate.of(2043, 4, 1), patientRepository.findSummaryById(patient.getId()).orElseThrow().getNextAppointment());
+    }
+
+    @Test
+    void staleNextAppointmentsAreRecomputedInOneStatementPerChunk() {
+        Patient stale = entityManager.persist(Patient.builder().name("Dwight").lastName("Schrute").contactInfo("schrute@mail.com")
+                .dob(LocalDate.of(1975, 5, 7)).nextAppointment(LocalDate.of(2043, 1, 1)).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.of(2043, 1, 1)).patient(stale).build());
+        entityManager.persist(Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.of(2043, 1, 20)).patient(stale).build());
+        entityManager.persist(Patient.builder().name("Jim").lastName("Halpert").contactInfo("jim.halper@mail.com")
+                .dob(LocalDate.of(1980, 10, 10)).nextAppointment(LocalDate.of(2043, 2, 1)).build());
+        entityManager.flush();
+
+        LocalDate today = LocalDate.of(2043, 1, 10);
+        List<Long> staleIds = patientRepository.findStaleNextAppointmentIds(today, 0L, PageRequest.of(0, 10));
+        Assertions.assertEquals(List.of(stale.getId()), staleIds);
+
+        statistics.clear();
+        patientRepository.recomputeNextAppointments(staleIds, today);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Assertions.assertEquals(LocalDate.of(2043, 1, 20), patientRepository.findSummaryById(stale.getId()).orElseThrow().getNextAppointment());
+    }
+
+    @Test
+    void summaryPageIsOneStatementWithoutEntities() {
+        List<PatientSummaryDto> summaries = patientRepository.findPatientSummariesPage(PatientPageRequest.builder().build(), PATIENTS);
+
+        Assertions.assertEquals(PATIENTS, summaries.size());
+        Assertions.assertEquals(3L, summaries.get(0).getAttendanceCount());
+        Assertions.assertEquals(3L, summaries.get(0).getAssessmentCount());
+        Assertions.assertEquals(3L, summaries.get(0).getProgressCount());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
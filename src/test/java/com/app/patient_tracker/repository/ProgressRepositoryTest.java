@@ -0,0 +1,77 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.dto.ProgressNoteDto;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.model.Progress;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest
+class ProgressRepositoryTest {
+
+    @Autowired
+    private ProgressRepository progressRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long jimId;
+    private Long dwightId;
+    private Long dwightProgressId;
+
+    @BeforeEach
+    void setUp() {
+        Patient jim = entityManager.persist(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build());
+        Patient dwight = entityManager.persist(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build());
+        jimId = jim.getId();
+        dwightId = dwight.getId();
+
+        entityManager.persist(Progress.builder().notes("Small range of motion of knee flexion.").patient(jim).build());
+        entityManager.persist(Progress.builder().notes("Range of motion in knee flexion got better.").patient(jim).build());
+        entityManager.persist(Progress.builder().notes("Short.").patient(jim).build());
+        dwightProgressId = entityManager.persist(Progress.builder().notes("Stiffness in neck.").patient(dwight).build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findNotesPage_returnsPatientNotesNewestFirstAfterCursor() {
+        List<ProgressNoteDto> firstPage = progressRepository.findLatestNotesPage(jimId, PageRequest.of(0, 2));
+        List<ProgressNoteDto> secondPage = progressRepository.findNotesPage(jimId, firstPage.get(1).getId(), PageRequest.of(0, 2));
+
+        Assertions.assertEquals(List.of("Short.", "Range of motion in knee flexion got better."),
+                firstPage.stream().map(ProgressNoteDto::getNotes).collect(Collectors.toList()));
+        Assertions.assertEquals(List.of("Small range of motion of knee flexion."),
+                secondPage.stream().map(ProgressNoteDto::getNotes).collect(Collectors.toList()));
+        Assertions.assertFalse(firstPage.get(0).isTruncated());
+    }
+
+    @Test
+    void findNotePreviewsPage_readsOnlyPreviewOfEachNote() {
+        List<ProgressNoteDto> previews = progressRepository.findLatestNotePreviewsPage(jimId, 10, PageRequest.of(0, 5));
+
+        Assertions.assertEquals(3, previews.size());
+        Assertions.assertEquals("Short.", previews.get(0).getNotes());
+        Assertions.assertFalse(previews.get(0).isTruncated());
+        Assertions.assertEquals("Range of m", previews.get(1).getNotes());
+        Assertions.assertEquals(43, previews.get(1).getNotesLength());
+        Assertions.assertTrue(previews.get(1).isTruncated());
+        Assertions.assertEquals(previews.subList(1, 3), progressRepository.findNotePreviewsPage(jimId, previews.get(0).getId(), 10, PageRequest.of(0, 5)));
+    }
+
+    @Test
+    void findNote_onlyReturnsNoteOfGivenPatient() {
+        Assertions.assertEquals("Stiffness in neck.", progressRepository.findNote(dwightId, dwightProgressId).orElseThrow().getNotes());
+        Assertions.assertTrue(progressRepository.findNote(jimId, dwightProgressId).isEmpty());
+    }
+}
@@ -0,0 +1,197 @@
+package com.app.patient_tracker.repository;
+
+import com.app.patient_tracker.model.Patient;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Guards the indexes of the hot repository queries. Each test calls a repository method or loads a collection,
+ * captures the SQL Hibernate generates for it with a statement inspector and asks H2 for its plan,
+ * binding the same parameter values. The test fails when the expected index is no longer used.
+ * H2 backs every foreign key with an index of its own and uses it for plain patient_id lookups,
+ * its name is read from INFORMATION_SCHEMA since H2 generates it, as is the name of the primary key index.
+ * Queries issued through JdbcTemplate are not seen by the inspector and are explained with their SQL text.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.app.patient_tracker.repository.QueryPlanTest$RecordingStatementInspector")
+class QueryPlanTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2043, 1, 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    private Long patientId;
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(final String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        patientId = entityManager.persistAndFlush(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build()).getId();
+        entityManager.clear();
+    }
+
+    @Test
+    void attendancesByPatientUseForeignKeyIndex() {
+        final String sql = issuedSql(() -> Hibernate.initialize(entityManager.find(Patient.class, patientId).getAttendances()));
+        assertUsesIndex(sql, foreignKeyIndex("ATTENDANCE"), patientId);
+    }
+
+    @Test
+    void nextAppointmentRecomputationUsesCompositeIndex() {
+        final String sql = issuedSql(() -> patientRepository.recomputeNextAppointment(patientId, TODAY));
+        assertUsesIndex(sql, "IDX_ATTENDANCE_PATIENT_SCHEDULE", TODAY, patientId);
+    }
+
+    @Test
+    void upcomingScheduleUsesScheduleIndex() {
+        final String sql = issuedSql(() -> attendanceRepository.findUpcomingAppointmentDates(TODAY));
+        assertUsesIndex(sql, "IDX_ATTENDANCE_SCHEDULE", TODAY);
+    }
+
+    @Test
+    void assessmentsByPatientUseForeignKeyIndex() {
+        final String sql = issuedSql(() -> Hibernate.initialize(entityManager.find(Patient.class, patientId).getAssessments()));
+        Assertions.assertEquals("IDX_ASSESSMENT_PATIENT_ID", foreignKeyIndex("ASSESSMENT"));
+        assertUsesIndex(sql, "IDX_ASSESSMENT_PATIENT_ID", patientId);
+    }
+
+    @Test
+    void assessmentTimelineUsesPatientCreationTimeIndex() {
+        final LocalDateTime from = TODAY.atStartOfDay();
+        final LocalDateTime to = from.plusYears(1);
+        final String sql = issuedSql(() -> {
+            try (Stream<Object[]> timeline = assessmentRepository.streamTimeline(patientId, from, to, null)) {
+                timeline.count();
+            }
+        });
+        assertUsesIndex(sql, "IDX_ASSESSMENT_PATIENT_ID_CREATED_AT", patientId, from, to, null, null);
+    }
+
+    @Test
+    void progressByPatientUsesForeignKeyIndex() {
+        final String sql = issuedSql(() -> Hibernate.initialize(entityManager.find(Patient.class, patientId).getPatientProgress()));
+        assertUsesIndex(sql, foreignKeyIndex("PROGRESS"), patientId);
+    }
+
+    @Test
+    void progressPageUsesKeysetIndex() {
+        final String sql = issuedSql(() -> progressRepository.findNotesPage(patientId, 1000L, PageRequest.of(0, 21)));
+        assertUsesIndex(sql, "IDX_PROGRESS_PATIENT_ID_ID", patientId, 1000L, 21);
+    }
+
+    @Test
+    void firstProgressPageUsesPatientIndex() {
+        final String sql = issuedSql(() -> progressRepository.findLatestNotesPage(patientId, PageRequest.of(0, 21)));
+        assertUsesIndex(sql, foreignKeyIndex("PROGRESS"), patientId, 21);
+    }
+
+    @Test
+    void noShowRiskRankingUsesSummaryIndex() {
+        assertUsesIndex("SELECT patient_id FROM attendance_summary WHERE attended + missed >= 3 " +
+                "ORDER BY no_show_rate DESC, patient_id LIMIT 50", "IDX_ATTENDANCE_SUMMARY_NO_SHOW_RATE");
+    }
+
+    @Test
+    void lastAttendedRankingUsesSummaryIndex() {
+        final String sql = "SELECT patient_id FROM attendance_summary ORDER BY last_attended NULLS FIRST, patient_id LIMIT 50";
+        assertUsesIndex(sql, "IDX_ATTENDANCE_SUMMARY_LAST_ATTENDED");
+        final String plan = explain(sql);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void staleNextAppointmentChunksWalkPrimaryKeyWithoutSorting() {
+        final String sql = issuedSql(() -> patientRepository.findStaleNextAppointmentIds(TODAY, 0L, PageRequest.of(0, 500)));
+        final String plan = explain(sql, TODAY, 0L, 500);
+        assertUsesIndex(sql, primaryKeyIndex("PATIENT"), TODAY, 0L, 500);
+        Assertions.assertTrue(plan.contains("index sorted"), "Expected keyset walk without sort in plan:\n" + plan);
+    }
+
+    @Test
+    void migrationCreatesForeignKeyIndexes() {
+        final Number indexes = (Number) entityManager.getEntityManager()
+                .createNativeQuery("SELECT COUNT(DISTINCT INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME IN " +
+                        "('IDX_ASSESSMENT_PATIENT_ID', 'IDX_ASSESSMENT_PATIENT_ID_CREATED_AT', 'IDX_PROGRESS_PATIENT_ID_ID', 'IDX_ATTENDANCE_PATIENT_SCHEDULE')")
+                .getSingleResult();
+        Assertions.assertEquals(4, indexes.intValue());
+    }
+
+    private String issuedSql(final Runnable repositoryCall) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        final List<String> statements = RecordingStatementInspector.STATEMENTS;
+        Assertions.assertFalse(statements.isEmpty(), "No statement was issued");
+        return statements.get(statements.size() - 1);
+    }
+
+    private String primaryKeyIndex(final String table) {
+        return String.valueOf(entityManager.getEntityManager()
+                .createNativeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = ? AND PRIMARY_KEY = TRUE")
+                .setParameter(1, table)
+                .getSingleResult());
+    }
+
+    private String foreignKeyIndex(final String table) {
+        return String.valueOf(entityManager.getEntityManager()
+                .createNativeQuery("SELECT i.INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES i " +
+                        "JOIN INFORMATION_SCHEMA.CONSTRAINTS c ON c.CONSTRAINT_NAME = i.CONSTRAINT_NAME " +
+                        "WHERE c.CONSTRAINT_TYPE = 'REFERENTIAL' AND i.TABLE_NAME = ? AND i.COLUMN_NAME = 'PATIENT_ID'")
+                .setParameter(1, table)
+                .getSingleResult());
+    }
+
+    private void assertUsesIndex(final String sql, final String indexName, final Object... parameters) {
+        final String plan = explain(sql, parameters);
+        Assertions.assertTrue(plan.toUpperCase().contains("PUBLIC." + indexName + ":")
+                || plan.toUpperCase().contains("PUBLIC." + indexName + " "), "Expected " + indexName + " in plan:\n" + plan);
+    }
+
+    private String explain(final String sql, final Object... parameters) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+}
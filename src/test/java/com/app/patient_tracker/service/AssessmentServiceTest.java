@@ -1,6 +1,7 @@
 package com.app.patient_tracker.service;
 
 import com.app.patient_tracker.dto.AssessmentRequestDto;
+import com.app.patient_tracker.dto.AssessmentTimelineDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Attendance;
@@ -17,10 +18,12 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 class AssessmentServiceTest {
@@ -35,6 +38,8 @@ class AssessmentServiceTest {
     private AssessmentRequestValidator assessmentRequestValidator;
     @Mock
     private PatientService patientService;
+    @Mock
+    private AssessmentStatistics assessmentStatistics;
 
     @Test
     void assessPatient() throws ApplicationException {
@@ -43,13 +48,15 @@ class AssessmentServiceTest {
         AssessmentRequestDto requestDto = AssessmentRequestDto.builder().title("title").points(1).patientId(patient.getId()).build();
         Assessment assessment = Assessment.builder().id(200L).points(1).title("title").patient(patient).build();
 
-        Mockito.when(patientService.getPatientById(patient.getId())).thenReturn(patient);
+        Mockito.when(patientService.getPatientReference(patient.getId())).thenReturn(patient);
 //        Mockito.when(assessmentRequestValidator.validateAssessmentRequest(requestDto)).thenReturn(true);
         Mockito.when(mappingService.mapAttendanceToEntity(requestDto)).thenReturn(assessment);
         Mockito.when(assessmentRepository.save(assessment)).thenReturn(assessment);
 
         assessmentService.assessPatient(patient.getId(), requestDto);
-        Assertions.assertEquals(3, patient.getAssessments().size());
+        Assertions.assertEquals(patient, assessment.getPatient());
+        Mockito.verify(patientService).evictPatient(patient.getId());
+        Mockito.verify(assessmentStatistics).recordAfterCommit("title", 1, patient.getId());
     }
 
     @Test
@@ -64,8 +71,44 @@ class AssessmentServiceTest {
         assessmentService.updateAssessment(assessment.getId(), newTitle, newPoints);
 
         Assertions.assertEquals(newTitle, assessment.getTitle());
+        Mockito.verify(assessmentStatistics).replaceAfterCommit("Provided Service Title", 45, newTitle, newPoints, null);
+    }
+
+    @Test
+    void getTimeline_downsamplesScoresOfRange() throws ApplicationException {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 10);
+        Mockito.when(assessmentRepository.streamTimeline(1L, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), "Berg"))
+                .thenReturn(Stream.of(new Object[]{LocalDateTime.of(2024, 1, 1, 10, 0), 10},
+                        new Object[]{LocalDateTime.of(2024, 1, 2, 10, 0), 20},
+                        new Object[]{LocalDateTime.of(2024, 1, 9, 10, 0), 40}));
+
+        AssessmentTimelineDto timeline = assessmentService.getTimeline(1L, from, to, "Berg", 2);
+
+        Mockito.verify(patientService).verifyPatientExists(1L);
+        Assertions.assertEquals(3, timeline.getAssessments());
+        Assertions.assertTrue(timeline.isDownsampled());
+        Assertions.assertEquals(2, timeline.getPoints().size());
+        Assertions.assertEquals(15.0, timeline.getPoints().get(0).getMean());
     }
 
+    @Test
+    void getTimeline_rejectsReversedRange() {
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class,
+                () -> assessmentService.getTimeline(1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, null));
+
+        Assertions.assertEquals(ErrorCode.INVALID_DATA_EXCEPTION, exception.getErrorCode());
+        Mockito.verifyNoInteractions(assessmentRepository);
+    }
+
+    @Test
+    void getTimeline_rejectsNotPositiveMaxPoints() {
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class,
+                () -> assessmentService.getTimeline(1L, null, null, null, 0));
+
+        Assertions.assertEquals(ErrorCode.INVALID_DATA_EXCEPTION, exception.getErrorCode());
+        Mockito.verifyNoInteractions(assessmentRepository);
+    }
 
     List<Patient> loadTestData() {
         Patient jim = Patient.builder().name("Jim").lastName("Halpert").contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build();
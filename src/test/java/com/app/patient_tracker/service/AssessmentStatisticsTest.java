@@ -0,0 +1,121 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.AssessmentStatisticsDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+class AssessmentStatisticsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AssessmentStatistics assessmentStatistics;
+
+    @BeforeEach
+    void setUp() {
+        assessmentStatistics = new AssessmentStatistics(jdbcTemplate);
+    }
+
+    @Test
+    void record_aggregatesPerTitleAndPerPatient() {
+        for (int points = 1; points <= 100; points++) {
+            assessmentStatistics.record("Berg Balance", points, points % 2 == 0 ? 1L : 2L);
+        }
+        assessmentStatistics.record("Barthel Index", 80, 1L);
+
+        final AssessmentStatisticsDto balance = assessmentStatistics.getTitleStatistics("Berg Balance");
+        Assertions.assertEquals(100, balance.getCount());
+        Assertions.assertEquals(50.5, balance.getMean());
+        Assertions.assertEquals(1, balance.getMin());
+        Assertions.assertEquals(100, balance.getMax());
+        Assertions.assertEquals(50, balance.getP50());
+        Assertions.assertEquals(90, balance.getP90());
+        Assertions.assertEquals(99, balance.getP99());
+
+        final AssessmentStatisticsDto patient = assessmentStatistics.getPatientStatistics(1L);
+        Assertions.assertEquals(51, patient.getCount());
+        Assertions.assertEquals(2, patient.getMin());
+        Assertions.assertEquals(100, patient.getMax());
+
+        Assertions.assertEquals(List.of("Barthel Index", "Berg Balance"), assessmentStatistics.getAllTitleStatistics().stream()
+                .map(AssessmentStatisticsDto::getTitle).collect(Collectors.toList()));
+    }
+
+    @Test
+    void replace_movesPointsBetweenTitles() {
+        assessmentStatistics.record("Berg Balance", 10, 1L);
+        assessmentStatistics.record("Berg Balance", 40, 1L);
+
+        assessmentStatistics.replaceAfterCommit("Berg Balance", 10, "Barthel Index", 70, 1L);
+
+        final AssessmentStatisticsDto balance = assessmentStatistics.getTitleStatistics("Berg Balance");
+        Assertions.assertEquals(1, balance.getCount());
+        Assertions.assertEquals(40, balance.getMin());
+        Assertions.assertEquals(40, balance.getMax());
+        Assertions.assertEquals(1, assessmentStatistics.getTitleStatistics("Barthel Index").getCount());
+        Assertions.assertEquals(55.0, assessmentStatistics.getPatientStatistics(1L).getMean());
+    }
+
+    @Test
+    void remove_releasesEmptyTitlesAndPatients() {
+        assessmentStatistics.record("Berg Balance", 10, 1L);
+        assessmentStatistics.remove("Berg Balance", 10, 1L);
+
+        final AssessmentStatisticsDto balance = assessmentStatistics.getTitleStatistics("Berg Balance");
+        Assertions.assertEquals(0, balance.getCount());
+        Assertions.assertNull(balance.getMean());
+        Assertions.assertEquals(0, assessmentStatistics.titleCount());
+        Assertions.assertEquals(0, assessmentStatistics.patientCount());
+    }
+
+    @Test
+    void removeAfterCommit_removesAllAssessmentsOfDeletedPatient() {
+        for (long patientId = 1; patientId <= 1000; patientId++) {
+            assessmentStatistics.record("Berg Balance", (int) patientId, patientId);
+        }
+
+        for (long patientId = 1; patientId <= 1000; patientId += 2) {
+            assessmentStatistics.removeAfterCommit(new AssessmentStatistics.PatientAssessments(patientId,
+                    new String[]{"Berg Balance"}, new int[]{(int) patientId}));
+        }
+
+        Assertions.assertEquals(500, assessmentStatistics.patientCount());
+        Assertions.assertEquals(500, assessmentStatistics.getTitleStatistics("Berg Balance").getCount());
+        for (long patientId = 2; patientId <= 1000; patientId += 2) {
+            Assertions.assertEquals((int) patientId, assessmentStatistics.getPatientStatistics(patientId).getMax());
+        }
+        Assertions.assertEquals(0, assessmentStatistics.getPatientStatistics(1L).getCount());
+    }
+
+    @Test
+    void percentiles_stayWithinBucketPrecisionAboveExactRange() {
+        for (int points = 1; points <= 100_000; points++) {
+            assessmentStatistics.record("Six Minute Walk", points, null);
+        }
+
+        final AssessmentStatisticsDto walk = assessmentStatistics.getTitleStatistics("Six Minute Walk");
+        Assertions.assertEquals(100_000, walk.getCount());
+        Assertions.assertEquals(50_000, walk.getP50(), 50_000 * 0.02);
+        Assertions.assertEquals(99_000, walk.getP99(), 99_000 * 0.02);
+        Assertions.assertEquals(0, assessmentStatistics.patientCount());
+    }
+
+    @Test
+    void bucketBounds_coverEveryPoint() {
+        for (int points = 0; points < 1 << 20; points += 7) {
+            final int bucket = AssessmentStatistics.bucket(points);
+            Assertions.assertTrue(AssessmentStatistics.lowerBound(bucket) <= points);
+            Assertions.assertTrue(AssessmentStatistics.upperBound(bucket) >= points);
+        }
+        Assertions.assertEquals(Integer.MAX_VALUE, AssessmentStatistics.upperBound(AssessmentStatistics.bucket(Integer.MAX_VALUE)));
+    }
+}
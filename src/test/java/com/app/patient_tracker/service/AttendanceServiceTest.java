@@ -1,6 +1,10 @@
 package com.app.patient_tracker.service;
 
 import com.app.patient_tracker.dto.AttendanceRequestDto;
+import com.app.patient_tracker.dto.AttendanceSeriesRequestDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceReportDto;
+import com.app.patient_tracker.dto.BulkMarkAttendanceRequestDto;
+import com.app.patient_tracker.dto.ScheduleDayDto;
 import com.app.patient_tracker.exception.*;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Attendance;
@@ -8,18 +12,25 @@ import com.app.patient_tracker.model.Patient;
 import com.app.patient_tracker.model.Progress;
 import com.app.patient_tracker.repository.AttendanceRepository;
 import com.app.patient_tracker.validator.AttendanceRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -39,6 +50,12 @@ class AttendanceServiceTest {
     private AttendanceRequestValidator attendanceRequestValidator;
     @Mock
     private AttendanceMappingService attendanceMappingService;
+    @Mock
+    private AttendanceSummaryService attendanceSummaryService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    @Mock
+    private EntityManager entityManager;
 
     @Test
     void findAttendanceById() throws ApplicationException {
@@ -54,32 +71,71 @@ class AttendanceServiceTest {
         Mockito.when(attendanceRepository.findById(attendance.getId())).thenReturn(Optional.of(attendance));
         when(attendanceRepository.save(Mockito.any(Attendance.class))).thenReturn(attendance);
 
+        LocalDate appointmentDate = attendance.getDateOfAttendance();
+
         attendanceService.markAttendance(attendance.getId());
         Assertions.assertEquals(true, attendance.getDidAttend());
         Assertions.assertEquals(LocalDate.now(), attendance.getDateOfAttendance());
+        Mockito.verify(attendanceSummaryService).recordAttended(attendance.getPatient().getId(), appointmentDate, LocalDate.now());
     }
 
     @Test
-    void getAllAttendances() throws ApplicationException {
+    void writeAllAttendances() throws IOException {
         List<Attendance> allAttendances = loadTestData().stream()
                 .flatMap(patient -> patient.getAttendances().stream())
                 .collect(Collectors.toList());
+        Mockito.when(attendanceRepository.streamAll()).thenReturn(allAttendances.stream());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
-        Mockito.when(attendanceRepository.findAll()).thenReturn(allAttendances);
-        List<Attendance> attendances = attendanceService.getAllAttendances();
-        Assertions.assertNotNull(attendances);
-        Assertions.assertEquals(allAttendances, attendances);
+        attendanceService.writeAllAttendances(outputStream, false);
+
+        Attendance[] written = objectMapper.readValue(outputStream.toByteArray(), Attendance[].class);
+        assertEquals(allAttendances.size(), written.length);
+        Mockito.verify(entityManager, Mockito.times(allAttendances.size())).detach(Mockito.any(Attendance.class));
     }
 
     @Test
-    void checkSchedule() throws ApplicationException {
-        List<Attendance> allAttendances = loadTestData().stream()
-                .flatMap(patient -> patient.getAttendances().stream())
-                .collect(Collectors.toList());
+    void writeAllAttendancesAsNdjson() throws IOException {
+        List<Attendance> allAttendances = loadTestData().get(2).getAttendances();
+        Mockito.when(attendanceRepository.streamAll()).thenReturn(allAttendances.stream());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        attendanceService.writeAllAttendances(outputStream, true);
+
+        String[] lines = outputStream.toString().split("\n");
+        assertEquals(allAttendances.size(), lines.length);
+        assertEquals(false, objectMapper.readValue(lines[0], Attendance.class).getDidAttend());
+    }
+
+    @Test
+    void checkSchedule() {
+        List<LocalDate> upcomingDates = Arrays.asList(LocalDate.now().plusDays(1), LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        Mockito.when(attendanceRepository.findUpcomingAppointmentDates(LocalDate.now())).thenReturn(upcomingDates);
 
-        Mockito.when(attendanceRepository.findAll()).thenReturn(allAttendances);
         List<LocalDate> schedule = attendanceService.checkSchedule();
-        assertEquals(4, schedule.size());
+
+        assertEquals(upcomingDates, schedule);
+        Mockito.verify(attendanceRepository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void checkDailySchedule() throws ApplicationException {
+        LocalDate from = LocalDate.of(2043, 4, 1);
+        LocalDate to = LocalDate.of(2043, 4, 30);
+        Mockito.when(attendanceRepository.countAppointmentsPerDay(from, to)).thenReturn(Arrays.asList(
+                new ScheduleDayDto(LocalDate.of(2043, 4, 1), 2L),
+                new ScheduleDayDto(LocalDate.of(2043, 4, 20), 1L)));
+
+        Map<LocalDate, Long> schedule = attendanceService.checkDailySchedule(from, to);
+
+        assertEquals(2, schedule.size());
+        assertEquals(2L, schedule.get(LocalDate.of(2043, 4, 1)));
+    }
+
+    @Test
+    void checkDailyScheduleRejectsReversedWindow() {
+        assertThrows(ApplicationException.class,
+                () -> attendanceService.checkDailySchedule(LocalDate.of(2043, 4, 30), LocalDate.of(2043, 4, 1)));
     }
 
     @Test
@@ -88,18 +144,97 @@ class AttendanceServiceTest {
         Attendance newAttendance = Attendance.builder().id(100L).dateOfAttendance(LocalDate.now()).patient(patient).build();
         AttendanceRequestDto attendanceRequest = AttendanceRequestDto.builder().patientId(patient.getId()).dateOfAttendance(LocalDate.now()).build();
 
-        Mockito.when(patientService.getPatientById(patient.getId())).thenReturn(patient);
+        Mockito.when(patientService.getPatientReference(patient.getId())).thenReturn(patient);
 //        Mockito.when(attendanceRequestValidator.validateAttendanceRequest(attendanceRequest)).thenReturn(true);
         Mockito.when(attendanceMappingService.mapAttendanceToEntity(attendanceRequest)).thenReturn(newAttendance);
         Mockito.when(attendanceRepository.save(newAttendance)).thenReturn(newAttendance);
-        Mockito.doNothing().when(patientService).checkForNextAppointment(patient);
+        Mockito.doNothing().when(patientService).checkForNextAppointment(patient.getId());
 
-        attendanceService.scheduleAppointment(attendanceRequest, patient.getId());
+        Attendance attendance = attendanceService.scheduleAppointment(attendanceRequest, patient.getId());
 
-        Assertions.assertEquals(3, patient.getAttendances().size());
-        Assertions.assertEquals(LocalDate.now(), patient.getAttendances().get(2).getDateOfAttendance());
+        Assertions.assertEquals(patient, attendance.getPatient());
+        Assertions.assertFalse(attendance.getDidAttend());
+        Assertions.assertEquals(LocalDate.now(), attendance.getDateOfAttendance());
+        Mockito.verify(attendanceSummaryService).recordScheduled(patient.getId(), 1);
     }
 
+    @Test
+    void scheduleAppointmentSeriesWithCount() throws ApplicationException {
+        Patient patient = loadTestData().get(0);
+        LocalDate start = LocalDate.now().plusDays(1);
+        AttendanceSeriesRequestDto seriesRequest = AttendanceSeriesRequestDto.builder().startDate(start).intervalDays(7).count(12).build();
+
+        Mockito.when(patientService.getPatientReference(patient.getId())).thenReturn(patient);
+        Mockito.when(attendanceMappingService.mapAttendanceToEntity(Mockito.any(AttendanceRequestDto.class)))
+                .thenAnswer(invocation -> Attendance.builder().dateOfAttendance(invocation.<AttendanceRequestDto>getArgument(0).getDateOfAttendance()).build());
+
+        List<Attendance> series = attendanceService.scheduleAppointmentSeries(seriesRequest, patient.getId());
+
+        Assertions.assertEquals(12, series.size());
+        Assertions.assertEquals(start, series.get(0).getDateOfAttendance());
+        Assertions.assertEquals(start.plusWeeks(11), series.get(11).getDateOfAttendance());
+        Assertions.assertTrue(series.stream().allMatch(attendance -> patient.equals(attendance.getPatient()) && !attendance.getDidAttend()));
+        Mockito.verify(attendanceRequestValidator, Mockito.times(12)).validateAttendanceRequest(Mockito.any());
+        Mockito.verify(attendanceRepository).saveAll(series);
+        Mockito.verify(attendanceRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(patientService, Mockito.times(1)).checkForNextAppointment(patient.getId());
+        Mockito.verify(attendanceSummaryService).recordScheduled(patient.getId(), 12);
+    }
+
+    @Test
+    void scheduleAppointmentSeriesUntilDate() throws ApplicationException {
+        LocalDate start = LocalDate.now().plusDays(1);
+        AttendanceSeriesRequestDto seriesRequest = AttendanceSeriesRequestDto.builder().startDate(start).intervalDays(3).until(start.plusDays(10)).build();
+
+        Mockito.when(attendanceMappingService.mapAttendanceToEntity(Mockito.any(AttendanceRequestDto.class)))
+                .thenAnswer(invocation -> Attendance.builder().dateOfAttendance(invocation.<AttendanceRequestDto>getArgument(0).getDateOfAttendance()).build());
+
+        List<Attendance> series = attendanceService.scheduleAppointmentSeries(seriesRequest, 1L);
+
+        Assertions.assertEquals(Arrays.asList(start, start.plusDays(3), start.plusDays(6), start.plusDays(9)),
+                series.stream().map(Attendance::getDateOfAttendance).collect(Collectors.toList()));
+    }
+
+    @Test
+    void scheduleAppointmentSeriesSavesNothingWhenADateIsInvalid() throws ApplicationException {
+        AttendanceSeriesRequestDto seriesRequest = AttendanceSeriesRequestDto.builder().startDate(LocalDate.now()).intervalDays(7).count(3).build();
+        Mockito.doThrow(new ApplicationException("Wrong attendance date.", ErrorCode.ATTENDANCE_REQUEST_EXCEPTION))
+                .when(attendanceRequestValidator).validateAttendanceRequest(Mockito.any());
+
+        assertThrows(ApplicationException.class, () -> attendanceService.scheduleAppointmentSeries(seriesRequest, 1L));
+        Mockito.verifyNoInteractions(attendanceRepository);
+        Mockito.verify(patientService, Mockito.never()).checkForNextAppointment(Mockito.any());
+    }
+    @Test
+    void markAttendancesByIdsReportsMissingIds() throws ApplicationException {
+        BulkMarkAttendanceRequestDto request = BulkMarkAttendanceRequestDto.builder().attendanceIds(Arrays.asList(1L, 2L, 3L, 2L)).build();
+        Mockito.when(attendanceRepository.findExistingIds(Mockito.anyCollection())).thenReturn(Arrays.asList(1L, 3L));
+        Mockito.when(attendanceRepository.findPatientIdsByAttendanceIds(Arrays.asList(1L, 3L))).thenReturn(Arrays.asList(10L, 11L));
+        Mockito.when(attendanceRepository.markAttended(Arrays.asList(1L, 3L))).thenReturn(2);
+
+        BulkMarkAttendanceReportDto report = attendanceService.markAttendances(request);
+
+        Assertions.assertEquals(2, report.getMarked());
+        Assertions.assertEquals(List.of(2L), report.getMissingAttendanceIds());
+        Assertions.assertTrue(report.getMissingPatientIds().isEmpty());
+        Mockito.verify(patientService).checkForNextAppointments(Arrays.asList(10L, 11L));
+        Mockito.verify(attendanceRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void markAttendancesByRosterReportsPatientsWithoutAttendance() throws ApplicationException {
+        LocalDate date = LocalDate.now();
+        BulkMarkAttendanceRequestDto request = BulkMarkAttendanceRequestDto.builder().date(date).patientIds(Arrays.asList(10L, 11L, 12L)).build();
+        Mockito.when(attendanceRepository.findIdsByDateAndPatientIds(date, request.getPatientIds())).thenReturn(Arrays.asList(5L, 6L));
+        Mockito.when(attendanceRepository.findPatientIdsByAttendanceIds(Arrays.asList(5L, 6L))).thenReturn(Arrays.asList(10L, 12L));
+        Mockito.when(attendanceRepository.markAttended(Arrays.asList(5L, 6L))).thenReturn(2);
+
+        BulkMarkAttendanceReportDto report = attendanceService.markAttendances(request);
+
+        Assertions.assertEquals(2, report.getMarked());
+        Assertions.assertEquals(List.of(11L), report.getMissingPatientIds());
+        Mockito.verify(patientService).checkForNextAppointments(Arrays.asList(10L, 12L));
+    }
 
     List<Patient> loadTestData() {
         Patient jim = Patient.builder().name("Jim").lastName("Halpert").contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build();
@@ -0,0 +1,163 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.AttendanceSummaryDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest
+class AttendanceSummaryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private AttendanceSummaryService attendanceSummaryService;
+    private Long jimId;
+    private Long dwightId;
+
+    @BeforeEach
+    void setUp() {
+        attendanceSummaryService = new AttendanceSummaryService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                Mockito.mock(PatientService.class), 1);
+        jimId = patientRepository.saveAndFlush(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build()).getId();
+        dwightId = patientRepository.saveAndFlush(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build()).getId();
+    }
+
+    @Test
+    void recordScheduled_createsMissingSummaryFromAttendancesThenCounts() throws ApplicationException {
+        insertAttendance(jimId, TODAY.minusDays(20), true);
+        insertAttendance(jimId, TODAY.minusDays(10), false);
+        insertAttendance(jimId, TODAY.plusDays(7), false);
+
+        attendanceSummaryService.recordScheduled(jimId, 3);
+        AttendanceSummaryDto created = attendanceSummaryService.getSummary(jimId);
+        Assertions.assertEquals(3, created.getScheduled());
+        Assertions.assertEquals(1, created.getAttended());
+        Assertions.assertEquals(1, created.getMissed());
+        Assertions.assertEquals(TODAY.minusDays(20), created.getLastAttended());
+        Assertions.assertEquals(0.5, created.getNoShowRate());
+
+        insertAttendance(jimId, TODAY.plusDays(14), false);
+        attendanceSummaryService.recordScheduled(jimId, 1);
+        Assertions.assertEquals(4, attendanceSummaryService.getSummary(jimId).getScheduled());
+    }
+
+    @Test
+    void recordScheduled_countsIntoSummaryCreatedConcurrently() throws ApplicationException {
+        jdbcTemplate.update("INSERT INTO attendance_summary (patient_id, scheduled, attended, missed, missed_through) " +
+                "VALUES (?, 1, 0, 0, ?)", jimId, Date.valueOf(TODAY));
+        final JdbcTemplate racingJdbcTemplate = Mockito.spy(jdbcTemplate);
+        Mockito.doThrow(new DuplicateKeyException("attendance_summary"))
+                .when(racingJdbcTemplate).update(Mockito.startsWith("INSERT INTO attendance_summary"), Mockito.<Object>any());
+        attendanceSummaryService = new AttendanceSummaryService(racingJdbcTemplate, new TransactionTemplate(transactionManager),
+                Mockito.mock(PatientService.class), 1);
+
+        attendanceSummaryService.recordScheduled(jimId, 2);
+
+        Assertions.assertEquals(3, attendanceSummaryService.getSummary(jimId).getScheduled());
+    }
+
+    @Test
+    void countMissedAppointments_countsEveryPastUnattendedAppointmentOnce() throws ApplicationException {
+        insertAttendance(jimId, TODAY.plusDays(1), false);
+        insertAttendance(dwightId, TODAY.plusDays(1), false);
+        attendanceSummaryService.recordScheduled(jimId, 1);
+        attendanceSummaryService.recordScheduled(dwightId, 1);
+        insertAttendance(jimId, TODAY.minusDays(3), false);
+        insertAttendance(dwightId, TODAY.minusDays(2), false);
+        insertAttendance(dwightId, TODAY.minusDays(1), false);
+        jdbcTemplate.update("UPDATE attendance_summary SET missed_through = ?", Date.valueOf(TODAY.minusDays(5)));
+
+        attendanceSummaryService.countMissedAppointments();
+        attendanceSummaryService.countMissedAppointments();
+
+        Assertions.assertEquals(1, attendanceSummaryService.getSummary(jimId).getMissed());
+        Assertions.assertEquals(2, attendanceSummaryService.getSummary(dwightId).getMissed());
+        Assertions.assertEquals(1.0, attendanceSummaryService.getSummary(dwightId).getNoShowRate());
+    }
+
+    @Test
+    void recordAttended_movesMissedAppointmentToAttended() throws ApplicationException {
+        insertAttendance(jimId, TODAY.minusDays(10), false);
+        insertAttendance(jimId, TODAY.minusDays(5), false);
+        attendanceSummaryService.recordScheduled(jimId, 2);
+
+        jdbcTemplate.update("UPDATE attendance SET didAttend = TRUE, dateOfAttendance = ? WHERE patient_id = ? AND dateOfAttendance = ?",
+                Date.valueOf(TODAY), jimId, Date.valueOf(TODAY.minusDays(10)));
+        attendanceSummaryService.recordAttended(jimId, TODAY.minusDays(10), TODAY);
+
+        AttendanceSummaryDto summary = attendanceSummaryService.getSummary(jimId);
+        Assertions.assertEquals(1, summary.getAttended());
+        Assertions.assertEquals(1, summary.getMissed());
+        Assertions.assertEquals(TODAY, summary.getLastAttended());
+        Assertions.assertEquals(0.5, summary.getNoShowRate());
+    }
+
+    @Test
+    void recompute_rebuildsCountersFromAttendances() throws ApplicationException {
+        insertAttendance(jimId, TODAY.minusDays(10), false);
+        insertAttendance(jimId, TODAY.minusDays(5), false);
+        attendanceSummaryService.recordScheduled(jimId, 2);
+
+        jdbcTemplate.update("UPDATE attendance SET didAttend = TRUE WHERE patient_id = ?", jimId);
+        attendanceSummaryService.recompute(List.of(jimId));
+
+        AttendanceSummaryDto summary = attendanceSummaryService.getSummary(jimId);
+        Assertions.assertEquals(2, summary.getAttended());
+        Assertions.assertEquals(0, summary.getMissed());
+        Assertions.assertEquals(TODAY.minusDays(5), summary.getLastAttended());
+        Assertions.assertEquals(0.0, summary.getNoShowRate());
+    }
+
+    @Test
+    void getSummaries_sortsByNoShowRateAndFilters() throws ApplicationException {
+        insertAttendance(jimId, TODAY.minusDays(10), true);
+        insertAttendance(jimId, TODAY.minusDays(5), false);
+        insertAttendance(dwightId, TODAY.minusDays(5), false);
+        attendanceSummaryService.recordScheduled(jimId, 2);
+        attendanceSummaryService.recordScheduled(dwightId, 1);
+
+        Assertions.assertEquals(List.of(dwightId, jimId), patientIds(attendanceSummaryService.getSummaries(null, null, null, null, null)));
+        Assertions.assertEquals(List.of(jimId), patientIds(attendanceSummaryService.getSummaries("noShowRate", 2, null, null, null)));
+        Assertions.assertEquals(List.of(dwightId), patientIds(attendanceSummaryService.getSummaries("lastAttended", null, 1, TODAY.minusDays(10), 1)));
+
+        Assertions.assertEquals(List.of(dwightId, jimId), patientIds(attendanceSummaryService.getSummaries("lastAttended", null, null, null, null)));
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class,
+                () -> attendanceSummaryService.getSummaries("name", null, null, null, null));
+        Assertions.assertEquals(ErrorCode.INVALID_DATA_EXCEPTION, exception.getErrorCode());
+    }
+
+    private List<Long> patientIds(final List<AttendanceSummaryDto> summaries) {
+        return summaries.stream().map(AttendanceSummaryDto::getPatientId).collect(Collectors.toList());
+    }
+
+    private void insertAttendance(final Long patientId, final LocalDate date, final boolean attended) {
+        jdbcTemplate.update("INSERT INTO attendance (didAttend, dateOfAttendance, patient_id) VALUES (?, ?, ?)",
+                attended, Date.valueOf(date), patientId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.RolloverStatusDto;
+import com.app.patient_tracker.repository.PatientRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class NextAppointmentRolloverJobTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private PatientService patientService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private NextAppointmentRolloverJob rolloverJob;
+
+    @BeforeEach
+    void setUp() {
+        rolloverJob = new NextAppointmentRolloverJob(patientRepository, patientService, transactionTemplate, 2);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void rollOverStaleNextAppointmentsInChunks() {
+        LocalDate today = LocalDate.now();
+        List<Long> firstChunk = Arrays.asList(1L, 4L);
+        List<Long> secondChunk = Collections.singletonList(7L);
+        Mockito.when(patientRepository.findStaleNextAppointmentIds(today, 0L, PageRequest.of(0, 2))).thenReturn(firstChunk);
+        Mockito.when(patientRepository.findStaleNextAppointmentIds(today, 4L, PageRequest.of(0, 2))).thenReturn(secondChunk);
+        Mockito.when(patientRepository.findStaleNextAppointmentIds(today, 7L, PageRequest.of(0, 2))).thenReturn(Collections.emptyList());
+
+        rolloverJob.rollOverStaleNextAppointments();
+
+        Mockito.verify(patientRepository).recomputeNextAppointments(firstChunk, today);
+        Mockito.verify(patientRepository).recomputeNextAppointments(secondChunk, today);
+        Mockito.verify(patientService).evictPatient(7L);
+        Mockito.verify(transactionTemplate, Mockito.times(3)).execute(Mockito.any());
+
+        RolloverStatusDto status = rolloverJob.getStatus();
+        Assertions.assertFalse(status.isRunning());
+        Assertions.assertEquals(3, status.getProcessedPatients());
+        Assertions.assertEquals(2, status.getProcessedChunks());
+        Assertions.assertNotNull(status.getDurationMillis());
+    }
+}
@@ -0,0 +1,145 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.PatientImportReportDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import com.app.patient_tracker.validator.PatientRequestValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class PatientImportServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PatientNameIndex patientNameIndex;
+
+    private PatientImportService patientImportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().findModulesViaServiceLoader(true).build();
+        patientImportService = new PatientImportService(patientRepository, new PatientMappingService(), new PatientRequestValidator(),
+                objectMapper, transactionTemplate, entityManager, patientNameIndex, 2);
+    }
+
+    private void executeTransactionCallbacks() {
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNdjsonInChunksAndReportInvalidRows() throws Exception {
+        executeTransactionCallbacks();
+        String ndjson = "{\"name\":\"John\",\"lastName\":\"Doe\",\"dob\":\"1990-01-01\",\"contactInfo\":\"john@mail.com\"}\n"
+                + "{\"name\":\"Jane\"}\n"
+                + "\n"
+                + "not json\n"
+                + "{\"name\":\"Ann\",\"lastName\":\"Lee\",\"dob\":\"1985-05-05\",\"contactInfo\":\"ann@mail.com\"}\n"
+                + "{\"name\":\"Bob\",\"lastName\":\"Ray\",\"dob\":\"1970-07-07\",\"contactInfo\":\"bob@mail.com\"}\n";
+
+        PatientImportReportDto report = patientImportService.importNdjson(stream(ndjson));
+
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(2, report.getFailed());
+        Assertions.assertEquals(2, report.getErrors().get(0).getLine());
+        Assertions.assertEquals(4, report.getErrors().get(1).getLine());
+
+        ArgumentCaptor<List<Patient>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(patientRepository, Mockito.times(2)).saveAll(captor.capture());
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+    }
+
+    @Test
+    void importCsvWithQuotedFields() throws Exception {
+        executeTransactionCallbacks();
+        String csv = "name,lastName,dob,contactInfo\n"
+                + "John,Doe,1990-01-01,\"Main St 1, \"\"B\"\"\"\n"
+                + "Jane,Doe,01/01/1990,jane@mail.com\n"
+                + "Jim,Doe,1990-01-01,\n";
+
+        PatientImportReportDto report = patientImportService.importCsv(stream(csv));
+
+        Assertions.assertEquals(1, report.getImported());
+        Assertions.assertEquals(2, report.getFailed());
+        Assertions.assertEquals(3, report.getErrors().get(0).getLine());
+        Assertions.assertEquals(4, report.getErrors().get(1).getLine());
+        Mockito.verify(patientRepository).saveAll(Mockito.argThat(patients -> {
+            Patient patient = ((List<Patient>) patients).get(0);
+            return "Main St 1, \"B\"".equals(patient.getContactInfo()) && LocalDate.of(1990, 1, 1).equals(patient.getDob());
+        }));
+    }
+
+    @Test
+    void importCsvWithoutRequiredHeaderFailsWholeImport() {
+        String csv = "name,dob\n"
+                + "John,1990-01-01\n"
+                + "Ann,1985-05-05\n";
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class,
+                () -> patientImportService.importCsv(stream(csv)));
+
+        Assertions.assertEquals(ErrorCode.PATIENT_REQUEST_DTO_EXCEPTION, exception.getErrorCode());
+        Assertions.assertEquals("CSV header is missing column lastname.", exception.getMessage());
+        Mockito.verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void importCsvCountsLinesAfterBlankLinesBeforeHeader() throws Exception {
+        String csv = "\nname,lastName,dob,contactInfo\n"
+                + "John,,1990-01-01,john@mail.com\n";
+
+        PatientImportReportDto report = patientImportService.importCsv(stream(csv));
+
+        Assertions.assertEquals(1, report.getFailed());
+        Assertions.assertEquals(3L, report.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void failedChunkMarksAllItsRowsAsFailed() throws Exception {
+        Mockito.when(transactionTemplate.execute(Mockito.any())).thenThrow(new IllegalStateException("constraint"));
+        String ndjson = "{\"name\":\"John\",\"lastName\":\"Doe\",\"dob\":\"1990-01-01\",\"contactInfo\":\"john@mail.com\"}\n"
+                + "{\"name\":\"Ann\",\"lastName\":\"Lee\",\"dob\":\"1985-05-05\",\"contactInfo\":\"ann@mail.com\"}\n";
+
+        PatientImportReportDto report = patientImportService.importNdjson(stream(ndjson));
+
+        Assertions.assertEquals(0, report.getImported());
+        Assertions.assertEquals(Arrays.asList(1L, 2L),
+                Arrays.asList(report.getErrors().get(0).getLine(), report.getErrors().get(1).getLine()));
+    }
+
+    @Test
+    void splitCsvLineHandlesEmptyAndQuotedFields() {
+        Assertions.assertEquals(Arrays.asList("a", "", "b,c", ""), PatientImportService.splitCsvLine("a,,\"b,c\","));
+    }
+}
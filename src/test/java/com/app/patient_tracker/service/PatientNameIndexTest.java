@@ -0,0 +1,109 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.PatientSuggestionDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+class PatientNameIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private PatientNameIndex patientNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        patientNameIndex = new PatientNameIndex(jdbcTemplate);
+        patientNameIndex.put(1L, "Jim", "Halpert", LocalDate.of(1980, 10, 10));
+        patientNameIndex.put(2L, "Dwight", "Schrute", LocalDate.of(1975, 5, 7));
+        patientNameIndex.put(3L, "Pam", "Beesley", LocalDate.of(1982, 9, 30));
+        patientNameIndex.put(4L, "Jan", "Levinson-Gould", LocalDate.of(1970, 1, 1));
+        patientNameIndex.put(5L, "Gintarė", "Šimkutė", LocalDate.of(1990, 3, 3));
+    }
+
+    @Test
+    void suggest_matchesWordPrefixesOfAnyLength() {
+        Assertions.assertEquals(List.of(1L, 4L), ids(patientNameIndex.suggest("j", null)));
+        Assertions.assertEquals(List.of(1L), ids(patientNameIndex.suggest("hal", null)));
+        Assertions.assertEquals(List.of(1L), ids(patientNameIndex.suggest("Halpert", null)));
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("alpert", null)));
+    }
+
+    @Test
+    void suggest_everyQueryWordMustMatch() {
+        Assertions.assertEquals(List.of(1L), ids(patientNameIndex.suggest("ji HA", null)));
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("jim schrute", null)));
+        Assertions.assertEquals(List.of(2L), ids(patientNameIndex.suggest("schrute 1975-05", null)));
+    }
+
+    @Test
+    void suggest_ignoresCaseAndDiacriticsAndSplitsOnPunctuation() {
+        Assertions.assertEquals(List.of(5L), ids(patientNameIndex.suggest("simkute", null)));
+        Assertions.assertEquals(List.of(5L), ids(patientNameIndex.suggest("GINTARĖ", null)));
+        Assertions.assertEquals(List.of(4L), ids(patientNameIndex.suggest("levinson-g", null)));
+        Assertions.assertEquals(List.of(), patientNameIndex.suggest(" , ", null));
+    }
+
+    @Test
+    void suggest_ordersByLastNameAndAppliesLimit() {
+        patientNameIndex.put(6L, "Jim", "Anderson", LocalDate.of(1985, 1, 1));
+
+        List<PatientSuggestionDto> suggestions = patientNameIndex.suggest("jim", 1);
+
+        Assertions.assertEquals(1, suggestions.size());
+        Assertions.assertEquals("Anderson", suggestions.get(0).getLastName());
+    }
+
+    @Test
+    void put_existingPatient_replacesIndexedNames() {
+        patientNameIndex.put(3L, "Pam", "Halpert", LocalDate.of(1982, 9, 30));
+
+        Assertions.assertEquals(List.of(1L, 3L), ids(patientNameIndex.suggest("halpert", null)));
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("beesley", null)));
+        Assertions.assertEquals(5, patientNameIndex.size());
+    }
+
+    @Test
+    void remove_patientIsNoLongerSuggestedAndCompactionKeepsOthers() {
+        patientNameIndex.remove(1L);
+        for (long id = 100; id < 3100; id++) {
+            patientNameIndex.put(id, "Temp" + id, "Patient", LocalDate.of(2000, 1, 1));
+            patientNameIndex.remove(id);
+        }
+
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("jim", null)));
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("temp", null)));
+        Assertions.assertEquals(List.of(2L), ids(patientNameIndex.suggest("dwi", null)));
+        Assertions.assertEquals(4, patientNameIndex.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_replacesIndexWithPatientTable() {
+        Object[] row = {7L, "Oscar", "Martinez", LocalDate.of(1978, 2, 2)};
+        Mockito.when(jdbcTemplate.query(Mockito.anyString(), Mockito.any(RowMapper.class), Mockito.eq(0L), Mockito.anyInt()))
+                .thenReturn(List.<Object[]>of(row));
+
+        patientNameIndex.rebuild();
+
+        Assertions.assertEquals(1, patientNameIndex.size());
+        Assertions.assertEquals(List.of(7L), ids(patientNameIndex.suggest("osc mar", null)));
+        Assertions.assertEquals(List.of(), ids(patientNameIndex.suggest("jim", null)));
+    }
+
+    private static List<Long> ids(final List<PatientSuggestionDto> suggestions) {
+        return suggestions.stream().map(PatientSuggestionDto::getId).collect(Collectors.toList());
+    }
+}
@@ -1,22 +1,33 @@
 package com.app.patient_tracker.service;
 
+import com.app.patient_tracker.dto.PatientPageRequest;
+import com.app.patient_tracker.dto.PatientPageResponseDto;
+import com.app.patient_tracker.dto.PatientRequestDto;
+import com.app.patient_tracker.dto.PatientResponseDto;
+import com.app.patient_tracker.dto.PatientSummaryDto;
 import com.app.patient_tracker.dto.PatientUpdateRequest;
 import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Attendance;
 import com.app.patient_tracker.model.Patient;
 import com.app.patient_tracker.model.Progress;
 import com.app.patient_tracker.repository.PatientRepository;
+import com.app.patient_tracker.util.CacheConfig;
+import com.app.patient_tracker.validator.PatientRequestValidator;
 import com.app.patient_tracker.validator.PatientUpdateRequestValidator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -31,54 +42,210 @@ class PatientServiceTest {
 
     @Mock
     private PatientRepository repository;
-    @Mock
-    private CacheManager cacheManager;
-    @Mock
-    private Cache cache;
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PATIENT_CACHE);
     @Mock
     private PatientMappingService mappingService;
     @InjectMocks
     private PatientService patientService;
     @Mock
     private PatientUpdateRequestValidator patientUpdateRequestValidator;
+    @Mock
+    private PatientRequestValidator patientRequestValidator;
+    @Mock
+    private ProgressSearchIndex progressSearchIndex;
+    @Mock
+    private PatientNameIndex patientNameIndex;
+    @Mock
+    private AssessmentStatistics assessmentStatistics;
 
 
     @Test
     void checkForNextAppointment() {
-        Patient patient = loadTestData().get(2);
-        when(repository.save(Mockito.any(Patient.class))).thenReturn(patient);
-        patientService.checkForNextAppointment(patient);
-        Assertions.assertEquals(LocalDate.of(2043, 4, 1), patient.getNextAppointment());
+        when(repository.recomputeNextAppointment(3L, LocalDate.now())).thenReturn(1);
+        patientService.checkForNextAppointment(3L);
+        Mockito.verify(repository).recomputeNextAppointment(3L, LocalDate.now());
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Patient.class));
     }
 
     @Test
-    void getAllPatients() throws ApplicationException {
+    void getPatientsPage() throws ApplicationException {
         List<Patient> patients = loadTestData();
-        Mockito.when(repository.findAll()).thenReturn(patients);
-        List<Patient> patientsFromDb = patientService.getAllPatients();
-        Assertions.assertNotNull(patientsFromDb);
+        for (int i = 0; i < patients.size(); i++) {
+            patients.get(i).setId((long) i + 1);
+        }
+        PatientPageRequest pageRequest = PatientPageRequest.builder().size(2).build();
+        Mockito.when(repository.findPatientsPage(pageRequest, 3)).thenReturn(patients);
+
+        PatientPageResponseDto<PatientResponseDto> page = patientService.getPatientsPage(pageRequest);
+
+        Mockito.verify(mappingService).mapPatientsToResponse(patients.subList(0, 2));
+        Assertions.assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void getPatientsPageCapsPageSize() throws ApplicationException {
+        PatientPageRequest pageRequest = PatientPageRequest.builder().size(100_000).build();
+        Mockito.when(repository.findPatientsPage(pageRequest, PatientService.MAX_PAGE_SIZE + 1)).thenReturn(new ArrayList<>());
+
+        PatientPageResponseDto<PatientResponseDto> page = patientService.getPatientsPage(pageRequest);
+
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPatientSummariesPage() throws ApplicationException {
+        PatientPageRequest pageRequest = PatientPageRequest.builder().afterId(10L).size(1).build();
+        PatientSummaryDto first = PatientSummaryDto.builder().id(11L).build();
+        PatientSummaryDto second = PatientSummaryDto.builder().id(12L).build();
+        Mockito.when(repository.findPatientSummariesPage(pageRequest, 2)).thenReturn(Arrays.asList(first, second));
+
+        PatientPageResponseDto<PatientSummaryDto> page = patientService.getPatientSummariesPage(pageRequest);
+
+        Assertions.assertEquals(List.of(first), page.getPatients());
+        Assertions.assertEquals(11L, page.getNextCursor());
+    }
+
+    @Test
+    void getPatientsPageRejectsNonPositiveSize() {
+        PatientPageRequest pageRequest = PatientPageRequest.builder().size(0).build();
+        Assertions.assertThrows(ApplicationException.class, () -> patientService.getPatientsPage(pageRequest));
     }
 
     @Test
     void getPatientById() throws ApplicationException {
         Patient patient = loadTestData().get(0);
-        Mockito.when(repository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        patient.setId(1L);
+        Mockito.when(repository.findWithScheduleById(patient.getId())).thenReturn(Optional.of(patient));
         Patient retrievedPatient = patientService.getPatientById(patient.getId());
         Assertions.assertNotNull(retrievedPatient);
     }
 
     @Test
-    void updatePatientInfo() throws ApplicationException, IllegalAccessException {
+    void getPatientByIdServedFromCache() throws ApplicationException {
+        Patient patient = loadTestData().get(0);
+        patient.setId(1L);
+        Mockito.when(repository.findWithScheduleById(patient.getId())).thenReturn(Optional.of(patient));
+
+        patientService.getPatientById(patient.getId());
+        Patient cachedPatient = patientService.getPatientById(patient.getId());
+
+        Assertions.assertNotSame(patient, cachedPatient);
+        Assertions.assertEquals(patient.getName(), cachedPatient.getName());
+        Assertions.assertEquals(patient.getAssessments().size(), cachedPatient.getAssessments().size());
+        Assertions.assertSame(cachedPatient, cachedPatient.getAssessments().get(0).getPatient());
+        Mockito.verify(repository, Mockito.times(1)).findWithScheduleById(patient.getId());
+    }
+
+    @Test
+    void getPatientByIdDoesNotShareCachedInstance() throws ApplicationException {
+        Patient patient = loadTestData().get(1);
+        patient.setId(2L);
+        int assessments = patient.getAssessments().size();
+        Mockito.when(repository.findWithScheduleById(patient.getId())).thenReturn(Optional.of(patient));
+
+        patientService.getPatientById(patient.getId()).setName("Changed");
+        patient.getAssessments().clear();
+        Patient first = patientService.getPatientById(patient.getId());
+        first.getAssessments().clear();
+        Patient second = patientService.getPatientById(patient.getId());
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("Dwight", second.getName());
+        Assertions.assertEquals(assessments, second.getAssessments().size());
+    }
+
+    @Test
+    void checkForNextAppointmentEvictsPatient() throws ApplicationException {
+        Patient patient = loadTestData().get(2);
+        patient.setId(3L);
+        Mockito.when(repository.findWithScheduleById(patient.getId())).thenReturn(Optional.of(patient));
+
+        patientService.getPatientById(patient.getId());
+        patientService.checkForNextAppointment(patient.getId());
+        patientService.getPatientById(patient.getId());
+
+        Mockito.verify(repository, Mockito.times(2)).findWithScheduleById(patient.getId());
+    }
+
+    @Test
+    void addNewPatientReturnsOnlyCreatedPatient() throws ApplicationException {
+        Patient patient = loadTestData().get(0);
+        PatientRequestDto requestDto = PatientRequestDto.builder().name("Jim").lastName("Halpert").dob(LocalDate.of(1980, 10, 10)).build();
+        PatientResponseDto responseDto = PatientResponseDto.builder().id(1L).name("Jim").build();
+
+        Mockito.when(mappingService.mapPatientToEntity(requestDto)).thenReturn(patient);
+        Mockito.when(repository.save(patient)).thenReturn(patient);
+        Mockito.when(mappingService.mapPatientToResponse(patient)).thenReturn(responseDto);
+
+        PatientResponseDto createdPatient = patientService.addNewPatient(requestDto);
+
+        Assertions.assertEquals(responseDto, createdPatient);
+        Mockito.verify(repository, Mockito.never()).findAll();
+    }
+
+    @Test
+    void getRecentPatientsCapsLimit() throws ApplicationException {
+        List<Patient> patients = loadTestData();
+        Mockito.when(repository.findByOrderByIdDesc(PageRequest.of(0, PatientService.MAX_RECENT_PATIENTS))).thenReturn(patients);
+
+        patientService.getRecentPatients(1_000);
+
+        Mockito.verify(mappingService).mapPatientsToResponse(patients);
+    }
+
+    @Test
+    void updatePatientInfo() throws ApplicationException {
         Patient patient = loadTestData().get(0);
         PatientUpdateRequest updateRequest = PatientUpdateRequest.builder().contactInfo("1234").name("1234").build();
 
-        Mockito.when(repository.findById(patient.getId())).thenReturn(Optional.of(patient));
+        Mockito.when(repository.findSummaryById(patient.getId())).thenReturn(Optional.of(patient));
 //        Mockito.when(patientUpdateRequestValidator.validateGivenDataForUpdate(updateRequest, patient)).thenReturn(true);
+        Mockito.doCallRealMethod().when(patientUpdateRequestValidator).applyUpdate(updateRequest, patient);
         Mockito.when(repository.save(patient)).thenReturn(patient);
 
         patientService.updatePatientInfo(patient.getId(), updateRequest);
 
+        InOrder inOrder = Mockito.inOrder(patientUpdateRequestValidator);
+        inOrder.verify(patientUpdateRequestValidator).validateGivenDataForUpdate(updateRequest, patient);
+        inOrder.verify(patientUpdateRequestValidator).applyUpdate(updateRequest, patient);
+
         Assertions.assertEquals("1234", patient.getContactInfo());
+        Assertions.assertEquals("1234", patient.getName());
+        Assertions.assertEquals("Halpert", patient.getLastName());
+        Assertions.assertEquals(LocalDate.of(1980, 10, 10), patient.getDob());
+    }
+
+    @Test
+    void deletePatientByIdLocksPatientBeforeReadingAssessments() throws ApplicationException {
+        Patient patient = loadTestData().get(0);
+        patient.setId(1L);
+        AssessmentStatistics.PatientAssessments assessments = new AssessmentStatistics.PatientAssessments(1L,
+                new String[]{"Provided Service Title"}, new int[]{45});
+        Mockito.when(repository.findAndLockById(1L)).thenReturn(Optional.of(patient));
+        Mockito.when(assessmentStatistics.loadPatientAssessments(1L)).thenReturn(assessments);
+
+        patientService.deletePatientById(1L);
+
+        InOrder inOrder = Mockito.inOrder(repository, assessmentStatistics);
+        inOrder.verify(repository).findAndLockById(1L);
+        inOrder.verify(assessmentStatistics).loadPatientAssessments(1L);
+        inOrder.verify(repository).delete(patient);
+        inOrder.verify(repository).flush();
+        inOrder.verify(assessmentStatistics).removeAfterCommit(assessments);
+        Mockito.verify(progressSearchIndex).deletePatientAfterCommit(1L);
+        Mockito.verify(patientNameIndex).removeAfterCommit(1L);
+    }
+
+    @Test
+    void deletePatientByIdFailsForMissingPatient() {
+        Mockito.when(repository.findAndLockById(1L)).thenReturn(Optional.empty());
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> patientService.deletePatientById(1L));
+
+        Assertions.assertEquals(ErrorCode.DELETE_OPERATION_EXCEPTION, exception.getErrorCode());
+        Mockito.verify(repository, Mockito.never()).delete(Mockito.any(Patient.class));
+        Mockito.verifyNoInteractions(assessmentStatistics, progressSearchIndex, patientNameIndex);
     }
 
 
@@ -0,0 +1,161 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.dto.ProgressSearchHitDto;
+import com.app.patient_tracker.dto.ProgressSearchResponseDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProgressSearchIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @TempDir
+    Path directory;
+
+    private Patient jim;
+    private Patient dwight;
+    private ProgressSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jim = patientRepository.save(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build());
+        dwight = patientRepository.save(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build());
+        saveNote(jim, "Small range of motion of knee flexion.");
+        saveNote(jim, "Range of motion in knee flexion got better.");
+        saveNote(dwight, "Stiffness in neck, knee is fine.");
+        index = openIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+        jdbcTemplate.update("DELETE FROM progress");
+        jdbcTemplate.update("DELETE FROM patient");
+    }
+
+    @Test
+    void open_emptyIndex_indexesExistingNotes() throws ApplicationException {
+        ProgressSearchResponseDto result = index.search("knee", 0, null);
+
+        Assertions.assertEquals(3, result.getTotalHits());
+        Assertions.assertNull(result.getNextPage());
+    }
+
+    @Test
+    void search_matchesStemsAndPhrasesAndHighlightsSnippet() throws ApplicationException {
+        ProgressSearchResponseDto stiff = index.search("stiff", 0, null);
+        ProgressSearchResponseDto phrase = index.search("\"knee flexion\" better", 0, null);
+
+        Assertions.assertEquals(List.of(dwight.getId()), patientIds(stiff));
+        Assertions.assertEquals(1, phrase.getTotalHits());
+        Assertions.assertEquals(jim.getId(), phrase.getHits().get(0).getPatientId());
+        Assertions.assertTrue(phrase.getHits().get(0).getSnippet().contains("<b>knee</b>"));
+    }
+
+    @Test
+    void search_pagesRankedHits() throws ApplicationException {
+        ProgressSearchResponseDto first = index.search("knee", 0, 2);
+        ProgressSearchResponseDto second = index.search("knee", 1, 2);
+
+        Assertions.assertEquals(2, first.getHits().size());
+        Assertions.assertEquals(1, first.getNextPage());
+        Assertions.assertTrue(first.getHits().get(0).getScore() >= first.getHits().get(1).getScore());
+        Assertions.assertEquals(1, second.getHits().size());
+        Assertions.assertNull(second.getNextPage());
+    }
+
+    @Test
+    void indexAfterCommit_newNoteIsSearchable() throws ApplicationException {
+        Long noteId = saveNote(dwight, "Shoulder pain after lifting.");
+
+        index.indexAfterCommit(noteId, dwight.getId(), "Shoulder pain after lifting.");
+
+        Assertions.assertEquals(List.of(noteId),
+                index.search("shoulder", 0, null).getHits().stream().map(ProgressSearchHitDto::getProgressId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void deletePatient_removesPatientNotes() throws ApplicationException {
+        index.deletePatient(jim.getId());
+
+        Assertions.assertEquals(List.of(dwight.getId()), patientIds(index.search("knee", 0, null)));
+    }
+
+    @Test
+    void open_committedIndex_onlyIndexesNewerNotes() throws Exception {
+        index.close();
+        saveNote(jim, "Shoulder mobility exercises.");
+
+        index = openIndex();
+
+        Assertions.assertEquals(1, index.search("shoulder", 0, null).getTotalHits());
+        Assertions.assertEquals(3, index.search("knee", 0, null).getTotalHits());
+    }
+
+    @Test
+    void open_indexNotMatchingDatabase_rebuildsIndex() throws Exception {
+        index.close();
+        jdbcTemplate.update("DELETE FROM progress WHERE patient_id = ?", dwight.getId());
+
+        index = openIndex();
+
+        Assertions.assertEquals(List.of(jim.getId(), jim.getId()), patientIds(index.search("knee", 0, null)));
+    }
+
+    @Test
+    void search_blankQueryOrTooDeepPage_throwsException() {
+        ApplicationException blank = Assertions.assertThrows(ApplicationException.class, () -> index.search(" ", 0, null));
+        Assertions.assertEquals(ErrorCode.INVALID_DATA_EXCEPTION, blank.getErrorCode());
+        Assertions.assertThrows(ApplicationException.class, () -> index.search("knee", ProgressSearchIndex.MAX_RESULT_WINDOW, 1));
+        Assertions.assertThrows(ApplicationException.class, () -> index.search("knee", Integer.MAX_VALUE / 20, 20));
+        Assertions.assertThrows(ApplicationException.class, () -> index.search("knee", Integer.MAX_VALUE, 1));
+    }
+
+    @Test
+    void search_disabled_throwsException() {
+        ProgressSearchIndex disabled = new ProgressSearchIndex(jdbcTemplate, false, directory);
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> disabled.search("knee", 0, null));
+        Assertions.assertEquals(ErrorCode.PROGRESS_SEARCH_EXCEPTION, exception.getErrorCode());
+    }
+
+    private ProgressSearchIndex openIndex() throws IOException {
+        ProgressSearchIndex searchIndex = new ProgressSearchIndex(jdbcTemplate, true, directory);
+        searchIndex.open();
+        return searchIndex;
+    }
+
+    private Long saveNote(final Patient patient, final String notes) {
+        jdbcTemplate.update("INSERT INTO progress (notes, patient_id) VALUES (?, ?)", notes, patient.getId());
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM progress", Long.class);
+    }
+
+    private static List<Long> patientIds(final ProgressSearchResponseDto result) {
+        return result.getHits().stream().map(ProgressSearchHitDto::getPatientId).collect(Collectors.toList());
+    }
+}
@@ -1,7 +1,10 @@
 package com.app.patient_tracker.service;
 
+import com.app.patient_tracker.dto.ProgressNoteDto;
+import com.app.patient_tracker.dto.ProgressPageResponseDto;
 import com.app.patient_tracker.dto.ProgressRequestDto;
 import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
 import com.app.patient_tracker.model.Assessment;
 import com.app.patient_tracker.model.Attendance;
 import com.app.patient_tracker.model.Patient;
@@ -14,11 +17,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +40,12 @@ class ProgressServiceTest {
     private PatientService patientService;
     @Mock
     private ProgressMappingService progressMappingService;
+    @Mock
+    private ProgressWriteBehindService progressWriteBehindService;
+    @Mock
+    private ProgressSearchIndex progressSearchIndex;
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @Test
     void fillProgress() throws ApplicationException {
@@ -39,13 +53,34 @@ class ProgressServiceTest {
         ProgressRequestDto progressRequest = ProgressRequestDto.builder().build();
         Progress newProgress = Progress.builder().build();
 
-        Mockito.when(patientService.getPatientById(patient.getId())).thenReturn(patient);
+        Mockito.when(patientService.getVerifiedPatientReference(patient.getId())).thenReturn(patient);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
         Mockito.when(progressMappingService.mapProgressToEntity(progressRequest)).thenReturn(newProgress);
         Mockito.when(progressRepository.save(newProgress)).thenReturn(newProgress);
 
         progressService.fillProgress(patient.getId(), progressRequest);
 
-        Assertions.assertEquals(3, patient.getPatientProgress().size());
+        Assertions.assertEquals(patient, newProgress.getPatient());
+        Mockito.verify(patientService).verifyPatientExists(patient.getId());
+        Mockito.verify(patientService).evictPatient(patient.getId());
+        Mockito.verify(progressSearchIndex).indexAfterCommit(newProgress.getId(), patient.getId(), newProgress.getNotes());
+    }
+
+    @Test
+    void fillProgress_writeBehind_journalsNoteWithoutLoadingPatient() throws ApplicationException {
+        ProgressRequestDto progressRequest = ProgressRequestDto.builder().notes("Stiffness in neck.").build();
+
+        Mockito.when(progressWriteBehindService.isEnabled()).thenReturn(true);
+
+        progressService.fillProgress(1L, progressRequest);
+
+        Mockito.verify(patientService).verifyPatientExists(1L);
+        Mockito.verify(progressWriteBehindService).enqueue(1L, "Stiffness in neck.");
+        Mockito.verify(patientService, Mockito.never()).getVerifiedPatientReference(Mockito.any());
+        Mockito.verifyNoInteractions(progressRepository, transactionTemplate);
     }
 
     @Test
@@ -56,6 +91,44 @@ class ProgressServiceTest {
         Assertions.assertEquals(2, patient.getPatientProgress().size());
     }
 
+    @Test
+    void getProgressPage_preview_returnsPageAndCursorOfLastNote() throws ApplicationException {
+        List<ProgressNoteDto> notes = Arrays.asList(new ProgressNoteDto(9L, "Newest", 6), new ProgressNoteDto(7L, "Older", 5),
+                new ProgressNoteDto(4L, "Oldest", 6));
+        Mockito.when(progressRepository.findLatestNotePreviewsPage(1L, ProgressService.DEFAULT_PREVIEW_LENGTH, PageRequest.of(0, 3)))
+                .thenReturn(notes);
+
+        ProgressPageResponseDto page = progressService.getProgressPage(1L, null, 2, true, null);
+
+        Mockito.verify(patientService).verifyPatientExists(1L);
+        Assertions.assertEquals(notes.subList(0, 2), page.getProgresses());
+        Assertions.assertEquals(7L, page.getNextCursor());
+    }
+
+    @Test
+    void getProgressPage_fullNotes_lastPageHasNoCursor() throws ApplicationException {
+        List<ProgressNoteDto> notes = List.of(new ProgressNoteDto(4L, "Oldest", 6));
+        Mockito.when(progressRepository.findNotesPage(1L, 7L, PageRequest.of(0, ProgressService.MAX_PAGE_SIZE + 1))).thenReturn(notes);
+
+        ProgressPageResponseDto page = progressService.getProgressPage(1L, 7L, 1000, false, null);
+
+        Assertions.assertEquals(notes, page.getProgresses());
+        Assertions.assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProgressPage_notPositivePreviewLength_throwsException() {
+        Assertions.assertThrows(ApplicationException.class, () -> progressService.getProgressPage(1L, null, null, true, 0));
+        Mockito.verifyNoInteractions(progressRepository);
+    }
+
+    @Test
+    void getProgressNote_otherPatientsNote_throwsException() {
+        Mockito.when(progressRepository.findNote(1L, 5L)).thenReturn(Optional.empty());
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> progressService.getProgressNote(1L, 5L));
+        Assertions.assertEquals(ErrorCode.PROGRESS_NOT_FOUND_EXCEPTION, exception.getErrorCode());
+    }
 
     List<Patient> loadTestData() {
         Patient jim = Patient.builder().name("Jim").lastName("Halpert").contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build();
@@ -0,0 +1,141 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProgressWriteBehindServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @TempDir
+    Path directory;
+
+    private final PatientService patientService = Mockito.mock(PatientService.class);
+    private final ProgressSearchIndex progressSearchIndex = Mockito.mock(ProgressSearchIndex.class);
+    private Long jimId;
+    private Long dwightId;
+
+    @BeforeEach
+    void setUp() {
+        jimId = patientRepository.save(Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build()).getId();
+        dwightId = patientRepository.save(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM progress");
+        jdbcTemplate.update("DELETE FROM patient");
+        jdbcTemplate.update("UPDATE progress_journal_checkpoint SET last_seq = 0 WHERE id = 1");
+    }
+
+    @Test
+    void flush_writesJournaledNotesByPatientInOneStatementAndEvictsPatients() throws Exception {
+        final ProgressWriteBehindService service = openService();
+        service.enqueue(jimId, "Small range of motion of knee flexion.");
+        service.enqueue(dwightId, "Stiffness in neck.");
+        service.enqueue(jimId, "Range of motion in knee flexion got better.");
+
+        Assertions.assertEquals(0, countProgress());
+        Assertions.assertEquals(3, service.flush());
+
+        Assertions.assertEquals(List.of("Small range of motion of knee flexion.", "Range of motion in knee flexion got better."),
+                jdbcTemplate.queryForList("SELECT notes FROM progress WHERE patient_id = ? ORDER BY id", String.class, jimId));
+        Assertions.assertEquals(3L, checkpoint());
+        Mockito.verify(patientService).evictPatient(jimId);
+        Mockito.verify(patientService).evictPatient(dwightId);
+        Assertions.assertEquals(1, countSegments());
+        Mockito.verify(progressSearchIndex).indexAfter(0L);
+        service.close();
+    }
+
+    @Test
+    void replay_writesNotesLeftByCrashExactlyOnce() throws Exception {
+        final ProgressWriteBehindService crashed = openService();
+        crashed.enqueue(jimId, "Poor independence skills.");
+        crashed.enqueue(dwightId, "Patient has no problems anymore.");
+
+        final ProgressWriteBehindService restarted = openService();
+        Assertions.assertEquals(2, countProgress());
+        restarted.close();
+
+        openService().close();
+        Assertions.assertEquals(2, countProgress());
+        Assertions.assertEquals(2L, checkpoint());
+    }
+
+    @Test
+    void flush_removedPatient_dropsOnlyItsNotes() throws Exception {
+        final ProgressWriteBehindService service = openService();
+        service.enqueue(jimId, "Kept.");
+        service.enqueue(dwightId, "Dropped.");
+        jdbcTemplate.update("DELETE FROM patient WHERE id = ?", dwightId);
+
+        Assertions.assertEquals(1, service.flush());
+
+        Assertions.assertEquals(List.of("Kept."), jdbcTemplate.queryForList("SELECT notes FROM progress", String.class));
+        Assertions.assertEquals(2L, checkpoint());
+        service.close();
+    }
+
+    @Test
+    void replay_disabled_doesNotCreateJournal() throws IOException {
+        final ProgressWriteBehindService service = new ProgressWriteBehindService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                patientService, progressSearchIndex, false, directory, 500);
+        service.replay();
+
+        Assertions.assertFalse(service.isEnabled());
+        Assertions.assertEquals(0, service.flush());
+        Assertions.assertEquals(0, countSegments());
+    }
+
+    private ProgressWriteBehindService openService() throws IOException, ApplicationException {
+        final ProgressWriteBehindService service = new ProgressWriteBehindService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                patientService, progressSearchIndex, true, directory, 2);
+        service.replay();
+        return service;
+    }
+
+    private int countProgress() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress", Integer.class);
+    }
+
+    private Long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM progress_journal_checkpoint WHERE id = 1", Long.class);
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
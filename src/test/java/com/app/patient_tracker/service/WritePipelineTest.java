@@ -0,0 +1,104 @@
+package com.app.patient_tracker.service;
+
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import com.app.patient_tracker.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+class WritePipelineTest {
+
+    private final ThreadPoolExecutor executor = WritePipeline.newExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_disabled_runsOnCallingThread() throws ApplicationException {
+        final WritePipeline writePipeline = new WritePipeline(executor, false, 2);
+        final Thread caller = Thread.currentThread();
+
+        final CompletableFuture<Thread> result = writePipeline.submit(Thread::currentThread);
+
+        Assertions.assertTrue(result.isDone());
+        Assertions.assertSame(caller, result.join());
+        Assertions.assertEquals(0, executor.getCompletedTaskCount());
+    }
+
+    @Test
+    void submit_disabled_throwsTaskException() {
+        final WritePipeline writePipeline = new WritePipeline(executor, false, 2);
+
+        Assertions.assertThrows(ApplicationException.class, () -> writePipeline.submit(() -> {
+            throw new ApplicationException("Patient not found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION);
+        }));
+    }
+
+    @Test
+    void submit_enabled_runsOnPipelineThread() throws Exception {
+        final WritePipeline writePipeline = new WritePipeline(executor, true, 2);
+
+        final String threadName = writePipeline.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(threadName.startsWith("write-pipeline-"));
+    }
+
+    @Test
+    void submit_enabled_completesExceptionallyWithTaskException() throws ApplicationException {
+        final WritePipeline writePipeline = new WritePipeline(executor, true, 2);
+
+        final CompletableFuture<Object> result = writePipeline.submit(() -> {
+            throw new ApplicationException("Patient not found.", ErrorCode.PATIENT_NOT_FOUND_EXCEPTION);
+        });
+
+        final ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof ApplicationException);
+    }
+
+    @Test
+    void submit_queueFull_throwsServiceOverloadedException() throws Exception {
+        final WritePipeline writePipeline = new WritePipeline(executor, true, 3);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        writePipeline.bindTo(registry);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final CompletableFuture<Boolean> running = writePipeline.submit(() -> {
+            started.countDown();
+            return awaitQuietly(release);
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<Boolean> queued = writePipeline.submit(() -> true);
+
+        final ServiceOverloadedException exception = Assertions.assertThrows(ServiceOverloadedException.class,
+                () -> writePipeline.submit(() -> true));
+
+        Assertions.assertEquals(ErrorCode.SERVICE_OVERLOADED_EXCEPTION, exception.getErrorCode());
+        Assertions.assertEquals(3, exception.getRetryAfterSeconds());
+        Assertions.assertEquals(1.0, registry.get("write.pipeline.rejected").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("executor.queued").tag("name", "write.pipeline").gauge().value());
+
+        release.countDown();
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean awaitQuietly(final CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
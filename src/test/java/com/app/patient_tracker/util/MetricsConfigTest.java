@@ -0,0 +1,111 @@
+package com.app.patient_tracker.util;
+
+import com.app.patient_tracker.model.Attendance;
+import com.app.patient_tracker.model.Patient;
+import com.app.patient_tracker.repository.PatientRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1", "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void recordsHibernateWorkPerRequestAndCacheStatistics() throws Exception {
+        Patient patient = Patient.builder().name("Jim").lastName("Halpert")
+                .contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build();
+        patient.setAttendances(List.of(
+                Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.now().plusDays(1)).patient(patient).build(),
+                Attendance.builder().didAttend(false).dateOfAttendance(LocalDate.now().plusDays(2)).patient(patient).build()));
+        patient = patientRepository.save(patient);
+
+        mockMvc.perform(get("/api/patients/" + patient.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/patients/" + patient.getId())).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tags("method", "GET", "uri", "/api/patients/{id}").summary();
+        DistributionSummary entityLoads = meterRegistry.get("hibernate.request.entity.loads")
+                .tags("method", "GET", "uri", "/api/patients/{id}").summary();
+        Assertions.assertEquals(2, statements.count());
+        Assertions.assertTrue(statements.max() > 0, "First request should hit the database");
+        Assertions.assertEquals(3, entityLoads.totalAmount(), "Second request should be served from the cache");
+
+        Assertions.assertEquals(1, meterRegistry.get("cache.gets").tags("cache", CacheConfig.PATIENT_CACHE, "result", "hit").functionCounter().count());
+        Assertions.assertNotNull(meterRegistry.get("hikaricp.connections.active").gauge());
+        Assertions.assertNotNull(meterRegistry.get("hibernate.statements").functionCounter());
+        Assertions.assertNotNull(meterRegistry.get("patient.rollover.running").gauge());
+
+        mockMvc.perform(get("/actuator/metrics/hibernate.request.statements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("hibernate.request.statements"));
+    }
+
+    @Test
+    void recordsHibernateWorkOfWriteRoutesAcrossAsyncDispatch() throws Exception {
+        assertWriteRouteCounted(mockMvc, meterRegistry, patientRepository);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "write-pipeline.enabled=true")
+    class WithWritePipeline {
+
+        @Autowired
+        private MockMvc mockMvc;
+        @Autowired
+        private MeterRegistry meterRegistry;
+        @Autowired
+        private PatientRepository patientRepository;
+
+        @Test
+        void recordsHibernateWorkDoneOnThePipeline() throws Exception {
+            assertWriteRouteCounted(mockMvc, meterRegistry, patientRepository);
+        }
+    }
+
+    private static void assertWriteRouteCounted(final MockMvc mockMvc, final MeterRegistry meterRegistry,
+                                                final PatientRepository patientRepository) throws Exception {
+        final Patient patient = patientRepository.save(Patient.builder().name("Dwight").lastName("Schrute")
+                .contactInfo("schrute@mail.com").dob(LocalDate.of(1975, 5, 7)).build());
+
+        final MvcResult result = mockMvc.perform(post("/api/assessment/" + patient.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Berg Balance\",\"points\":40}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        final DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tags("method", "POST", "uri", "/api/assessment/{id}").summary();
+        Assertions.assertEquals(1, statements.count());
+        Assertions.assertTrue(statements.totalAmount() >= 2, "Patient check and insert should be counted, was " + statements.totalAmount());
+    }
+}
@@ -0,0 +1,114 @@
+package com.app.patient_tracker.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ProgressJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void encodeDecode_keepsNotesWithSeparatorsAndNull() {
+        final ProgressJournal.Entry entry = new ProgressJournal.Entry(7, 3L, "Knee flexion\tbetter\nthan last week, ąčę");
+        final ProgressJournal.Entry withoutNotes = new ProgressJournal.Entry(8, 3L, null);
+
+        Assertions.assertEquals(entry, decode(ProgressJournal.encode(entry)));
+        Assertions.assertEquals(withoutNotes, decode(ProgressJournal.encode(withoutNotes)));
+    }
+
+    @Test
+    void decode_corruptedLine_returnsNull() {
+        final String line = new String(ProgressJournal.encode(new ProgressJournal.Entry(1, 3L, "Stiffness in neck.")), StandardCharsets.US_ASCII).trim();
+
+        Assertions.assertNotNull(ProgressJournal.decode(line));
+        Assertions.assertNull(ProgressJournal.decode(line.replaceFirst("^1\t", "2\t")));
+        Assertions.assertNull(ProgressJournal.decode("garbage"));
+    }
+
+    @Test
+    void drain_returnsAppendedNotesAndRelease_deletesSealedSegments() throws IOException {
+        try (ProgressJournal journal = ProgressJournal.open(directory, 0)) {
+            Assertions.assertEquals(1, journal.append(1L, "First"));
+            Assertions.assertEquals(2, journal.append(2L, "Second"));
+
+            final List<ProgressJournal.Entry> drained = journal.drain();
+
+            Assertions.assertEquals(List.of(new ProgressJournal.Entry(1, 1L, "First"), new ProgressJournal.Entry(2, 2L, "Second")), drained);
+            Assertions.assertEquals(0, journal.pendingCount());
+            Assertions.assertEquals(2, segments().size());
+
+            journal.release();
+
+            Assertions.assertEquals(1, segments().size());
+            Assertions.assertTrue(journal.drain().isEmpty());
+        }
+    }
+
+    @Test
+    void open_replaysNotesAboveCommittedSeqAndSkipsTornLine() throws IOException {
+        final ProgressJournal crashed = ProgressJournal.open(directory, 10);
+        crashed.append(1L, "Committed before crash");
+        crashed.append(1L, "Not committed");
+        crashed.append(2L, "Not committed either");
+        Files.write(segments().get(0), "14\t2\tdG9ybg".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+        try (ProgressJournal journal = ProgressJournal.open(directory, 11)) {
+            final List<ProgressJournal.Entry> drained = journal.drain();
+
+            Assertions.assertEquals(List.of(new ProgressJournal.Entry(12, 1L, "Not committed"), new ProgressJournal.Entry(13, 2L, "Not committed either")), drained);
+            Assertions.assertEquals(14, journal.append(3L, "After restart"));
+        }
+    }
+
+    @Test
+    void append_concurrentWriters_everyNoteIsJournaledOnce() throws Exception {
+        final ExecutorService writers = Executors.newFixedThreadPool(4);
+        try (ProgressJournal journal = ProgressJournal.open(directory, 0)) {
+            final List<Future<Long>> appends = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final long patientId = i % 5;
+                appends.add(writers.submit(() -> journal.append(patientId, "Note")));
+            }
+            for (final Future<Long> append : appends) {
+                append.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        try (ProgressJournal journal = ProgressJournal.open(directory, 0)) {
+            final List<Long> seqs = journal.drain().stream().map(ProgressJournal.Entry::getSeq).sorted().collect(Collectors.toList());
+
+            Assertions.assertEquals(200, seqs.size());
+            Assertions.assertEquals(1, seqs.get(0));
+            Assertions.assertEquals(200, seqs.get(199));
+        }
+    }
+
+    private static ProgressJournal.Entry decode(final byte[] line) {
+        final String text = new String(line, StandardCharsets.US_ASCII);
+        Assertions.assertTrue(text.endsWith("\n"));
+        return ProgressJournal.decode(text.substring(0, text.length() - 1));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.app.patient_tracker.util;
+
+import com.app.patient_tracker.dto.AssessmentTimelinePointDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class TimelineDownsamplerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void keepsRawSamplesUpToMaxPoints() {
+        TimelineDownsampler downsampler = new TimelineDownsampler(3, FROM, FROM.plusDays(30));
+        downsampler.add(FROM.plusDays(1), 10);
+        downsampler.add(FROM.plusDays(2), 20);
+        downsampler.add(FROM.plusDays(3), 30);
+
+        List<AssessmentTimelinePointDto> points = downsampler.getPoints();
+        Assertions.assertFalse(downsampler.isDownsampled());
+        Assertions.assertEquals(3, points.size());
+        Assertions.assertEquals(FROM.plusDays(2), points.get(1).getTime());
+        Assertions.assertEquals(20.0, points.get(1).getMean());
+        Assertions.assertEquals(1, points.get(1).getCount());
+    }
+
+    @Test
+    void bucketsSamplesOnceThereAreMoreThanMaxPoints() {
+        TimelineDownsampler downsampler = new TimelineDownsampler(10, FROM, FROM.plusDays(100));
+        for (int day = 0; day < 100; day++) {
+            downsampler.add(FROM.plusDays(day), day);
+        }
+
+        List<AssessmentTimelinePointDto> points = downsampler.getPoints();
+        Assertions.assertTrue(downsampler.isDownsampled());
+        Assertions.assertEquals(100, downsampler.getSamples());
+        Assertions.assertEquals(10, points.size());
+        Assertions.assertEquals(0, points.get(0).getMin());
+        Assertions.assertEquals(9, points.get(0).getMax());
+        Assertions.assertEquals(4.5, points.get(0).getMean());
+        Assertions.assertEquals(FROM.plusDays(4).plusHours(12), points.get(0).getTime());
+        Assertions.assertEquals(10, points.get(9).getCount());
+        Assertions.assertEquals(99, points.get(9).getMax());
+    }
+
+    @Test
+    void omitsEmptyBuckets() {
+        TimelineDownsampler downsampler = new TimelineDownsampler(2, FROM, FROM.plusDays(10));
+        downsampler.add(FROM.plusDays(6), 1);
+        downsampler.add(FROM.plusDays(7), 2);
+        downsampler.add(FROM.plusDays(8), 3);
+
+        List<AssessmentTimelinePointDto> points = downsampler.getPoints();
+        Assertions.assertEquals(1, points.size());
+        Assertions.assertEquals(3, points.get(0).getCount());
+        Assertions.assertEquals(2.0, points.get(0).getMean());
+    }
+}
@@ -0,0 +1,40 @@
+package com.app.patient_tracker.validator;
+
+import com.app.patient_tracker.dto.AttendanceSeriesRequestDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class AttendanceRequestValidatorTest {
+
+    private final AttendanceRequestValidator validator = new AttendanceRequestValidator();
+
+    @Test
+    void seriesUntilBeforeStartIsRejected() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        AttendanceSeriesRequestDto request = AttendanceSeriesRequestDto.builder().startDate(start).intervalDays(7).until(start.minusDays(3)).build();
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> validator.validateAttendanceSeriesRequest(request));
+        Assertions.assertEquals(ErrorCode.ATTENDANCE_REQUEST_EXCEPTION, exception.getErrorCode());
+    }
+
+    @Test
+    void seriesUntilOnStartHasOneAppointment() throws ApplicationException {
+        LocalDate start = LocalDate.now().plusDays(10);
+        AttendanceSeriesRequestDto request = AttendanceSeriesRequestDto.builder().startDate(start).intervalDays(7).until(start).build();
+
+        validator.validateAttendanceSeriesRequest(request);
+    }
+
+    @Test
+    void seriesLongerThanMaximumIsRejected() {
+        LocalDate start = LocalDate.now().plusDays(1);
+        AttendanceSeriesRequestDto request = AttendanceSeriesRequestDto.builder().startDate(start).intervalDays(1)
+                .until(start.plusDays(AttendanceRequestValidator.MAX_SERIES_OCCURRENCES)).build();
+
+        Assertions.assertThrows(ApplicationException.class, () -> validator.validateAttendanceSeriesRequest(request));
+    }
+}
@@ -0,0 +1,28 @@
+package com.app.patient_tracker.validator;
+
+import com.app.patient_tracker.dto.PatientRequestDto;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.exception.ErrorCode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+class PatientRequestValidatorTest {
+
+    private final PatientRequestValidator validator = new PatientRequestValidator();
+
+    @Test
+    void completeRequestPasses() throws ApplicationException {
+        validator.validatePatientRequest(PatientRequestDto.builder().name("Jim").lastName("Halpert")
+                .dob(LocalDate.of(1980, 10, 10)).contactInfo("jim.halper@mail.com").build());
+    }
+
+    @Test
+    void missingContactInfoIsRejected() {
+        PatientRequestDto request = PatientRequestDto.builder().name("Jim").lastName("Halpert").dob(LocalDate.of(1980, 10, 10)).build();
+
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> validator.validatePatientRequest(request));
+        Assertions.assertEquals(ErrorCode.MANDATORY_FIELD_MISSING_EXCEPTION, exception.getErrorCode());
+    }
+}
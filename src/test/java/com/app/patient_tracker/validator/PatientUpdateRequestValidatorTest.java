@@ -0,0 +1,50 @@
+package com.app.patient_tracker.validator;
+
+import com.app.patient_tracker.dto.PatientUpdateRequest;
+import com.app.patient_tracker.exception.ApplicationException;
+import com.app.patient_tracker.model.Patient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class PatientUpdateRequestValidatorTest {
+
+    private final PatientUpdateRequestValidator validator = new PatientUpdateRequestValidator();
+
+    private Patient patient() {
+        return Patient.builder().name("Jim").lastName("Halpert").contactInfo("jim.halper@mail.com").dob(LocalDate.of(1980, 10, 10)).build();
+    }
+
+    @Test
+    void partialUpdateLeavesOtherFieldsUnchanged() throws ApplicationException {
+        Patient patient = patient();
+        PatientUpdateRequest request = PatientUpdateRequest.builder().contactInfo("jim@mail.com").build();
+
+        validator.validateGivenDataForUpdate(request, patient);
+        validator.applyUpdate(request, patient);
+
+        Assertions.assertEquals("jim@mail.com", patient.getContactInfo());
+        Assertions.assertEquals("Jim", patient.getName());
+        Assertions.assertEquals("Halpert", patient.getLastName());
+        Assertions.assertEquals(LocalDate.of(1980, 10, 10), patient.getDob());
+    }
+
+    @Test
+    void reportsAllViolationsInOnePass() {
+        PatientUpdateRequest request = PatientUpdateRequest.builder()
+                .name("Jim").lastName(" ").dob(LocalDate.now().plusDays(1)).contactInfo("new@mail.com").build();
+
+        Assertions.assertEquals(List.of("name", "lastName", "dob"), PatientUpdateRequestValidator.PATIENT_UPDATE_PLAN.findViolations(request, patient()));
+        ApplicationException exception = Assertions.assertThrows(ApplicationException.class, () -> validator.validateGivenDataForUpdate(request, patient()));
+        Assertions.assertEquals("name, lastName, dob is not correct or equals to the old one.", exception.getMessage());
+    }
+
+    @Test
+    void rejectsRequestWithoutChanges() {
+        Assertions.assertThrows(ApplicationException.class,
+                () -> validator.validateGivenDataForUpdate(PatientUpdateRequest.builder().build(), patient()));
+        Assertions.assertThrows(ApplicationException.class, () -> validator.validateGivenDataForUpdate(null, patient()));
+    }
+}